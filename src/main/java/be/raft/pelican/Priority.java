@@ -0,0 +1,43 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican;
+
+/**
+ * Represents the priority of a queued {@link PteroAction PteroAction}.
+ * <br>When the rate limiter is saturated, requests with a higher priority are executed first.
+ * Requests that have been waiting for a while are gradually promoted so lower priorities can't starve.
+ *
+ * @see PteroAction#priority(Priority)
+ */
+public enum Priority {
+	/**
+	 * For latency critical control actions, such as killing a crashing server.
+	 */
+	CRITICAL,
+	/**
+	 * For actions that should run before regular traffic, power actions and commands use this by default.
+	 */
+	HIGH,
+	/**
+	 * The default priority.
+	 */
+	NORMAL,
+	/**
+	 * For bulk and background work, such as iterating over every server of the panel.
+	 */
+	LOW
+}
@@ -18,15 +18,23 @@ package be.raft.pelican;
 
 import be.raft.pelican.entities.P4J;
 import be.raft.pelican.exceptions.RateLimitedException;
+import be.raft.pelican.requests.BatchAction;
 import be.raft.pelican.requests.PteroActionImpl;
+import be.raft.pelican.requests.action.impl.BatchActionImpl;
 import be.raft.pelican.requests.action.operator.*;
 import be.raft.pelican.utils.Checks;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Represents a terminal between the user and P4J.
@@ -83,6 +91,216 @@ public interface PteroAction<T> {
 		return PteroActionImpl.DEFAULT_SUCCESS;
 	}
 
+	/**
+	 * Creates a {@link BatchAction BatchAction} that executes the provided actions with a bounded parallelism
+	 * and collects their outcomes in a {@link be.raft.pelican.requests.BatchResult BatchResult}.
+	 *
+	 * @param  actions
+	 *         The actions to execute
+	 * @param  <T>
+	 *         The result type of the actions
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the collection is null, empty or contains null
+	 *
+	 * @return The BatchAction
+	 */
+	static <T> BatchAction<T> batch(Collection<? extends PteroAction<? extends T>> actions) {
+		List<PteroAction<? extends T>> list = checkActions(actions);
+		return new BatchActionImpl<>(list.get(0).getP4J(), list);
+	}
+
+	/**
+	 * Creates a PteroAction that executes the provided actions concurrently and completes with their results,
+	 * in the same order as the actions.
+	 * <br>If one of the actions fails, the returned action fails with the same error and the other actions are cancelled.
+	 *
+	 * <h2>Example</h2>
+	 * <pre>{@code
+	 * PteroAction.allOf(application.retrieveNodes(), application.retrieveLocations())
+	 *       .executeAsync(results -> ...);
+	 * }</pre>
+	 *
+	 * @param  actions
+	 *         The actions to execute
+	 * @param  <T>
+	 *         The result type of the actions
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the collection is null, empty or contains null
+	 *
+	 * @return PteroAction completed with the list of results
+	 */
+	static <T> PteroAction<List<T>> allOf(Collection<? extends PteroAction<? extends T>> actions) {
+		return new AllOfPteroAction<>(checkActions(actions));
+	}
+
+	/**
+	 * Creates a PteroAction that executes the provided actions concurrently and completes with their results,
+	 * in the same order as the actions.
+	 *
+	 * @param  first
+	 *         The first action to execute
+	 * @param  others
+	 *         The other actions to execute
+	 * @param  <T>
+	 *         The result type of the actions
+	 *
+	 * @throws IllegalArgumentException
+	 *         If one of the actions is null
+	 *
+	 * @return PteroAction completed with the list of results
+	 *
+	 * @see    #allOf(Collection)
+	 */
+	@SafeVarargs
+	static <T> PteroAction<List<T>> allOf(PteroAction<? extends T> first, PteroAction<? extends T>... others) {
+		List<PteroAction<? extends T>> list = new ArrayList<>(others.length + 1);
+		list.add(first);
+		// copied element by element, the array itself must not escape
+		for (PteroAction<? extends T> other : others) list.add(other);
+		return allOf(list);
+	}
+
+	/**
+	 * Creates a PteroAction that executes both actions concurrently and combines their results.
+	 * <br>If one of the actions fails, the returned action fails with the same error and the other action is cancelled.
+	 *
+	 * <h2>Example</h2>
+	 * <pre>{@code
+	 * PteroAction.zip(application.retrieveServerById(id), application.retrieveNodeById(nodeId), ServerDetails::new)
+	 *       .executeAsync(details -> ...);
+	 * }</pre>
+	 *
+	 * @param  first
+	 *         The first action to execute
+	 * @param  second
+	 *         The second action to execute
+	 * @param  combiner
+	 *         The function combining the results of both actions
+	 * @param  <A>
+	 *         The result type of the first action
+	 * @param  <B>
+	 *         The result type of the second action
+	 * @param  <O>
+	 *         The output type
+	 *
+	 * @throws IllegalArgumentException
+	 *         If one of the parameters is null
+	 *
+	 * @return PteroAction completed with the combined result
+	 */
+	@SuppressWarnings("unchecked")
+	static <A, B, O> PteroAction<O> zip(
+			PteroAction<A> first, PteroAction<B> second, BiFunction<? super A, ? super B, ? extends O> combiner) {
+		Checks.notNull(first, "Action");
+		Checks.notNull(second, "Action");
+		Checks.notNull(combiner, "Combiner");
+		return PteroAction.<Object>allOf(first, second)
+				.map(results -> combiner.apply((A) results.get(0), (B) results.get(1)));
+	}
+
+	/**
+	 * Creates a PteroAction that executes the provided actions concurrently and completes with the result
+	 * of the first action that succeeds, the other actions are then cancelled.
+	 * <br>The returned action only fails when every action failed, with the error of the last action that failed.
+	 *
+	 * @param  actions
+	 *         The actions to execute
+	 * @param  <T>
+	 *         The result type of the actions
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the collection is null, empty or contains null
+	 *
+	 * @return PteroAction completed with the first successful result
+	 *
+	 * @see    #race(Collection)
+	 */
+	static <T> PteroAction<T> anyOf(Collection<? extends PteroAction<? extends T>> actions) {
+		return new AnyOfPteroAction<>(checkActions(actions), false);
+	}
+
+	/**
+	 * Creates a PteroAction that executes the provided actions concurrently and completes with the result
+	 * of the first action that succeeds, the other actions are then cancelled.
+	 *
+	 * @param  first
+	 *         The first action to execute
+	 * @param  others
+	 *         The other actions to execute
+	 * @param  <T>
+	 *         The result type of the actions
+	 *
+	 * @throws IllegalArgumentException
+	 *         If one of the actions is null
+	 *
+	 * @return PteroAction completed with the first successful result
+	 *
+	 * @see    #anyOf(Collection)
+	 */
+	@SafeVarargs
+	static <T> PteroAction<T> anyOf(PteroAction<? extends T> first, PteroAction<? extends T>... others) {
+		List<PteroAction<? extends T>> list = new ArrayList<>(others.length + 1);
+		list.add(first);
+		for (PteroAction<? extends T> other : others) list.add(other);
+		return anyOf(list);
+	}
+
+	/**
+	 * Creates a PteroAction that executes the provided actions concurrently and completes like the first
+	 * action that completes, whether it succeeded or failed. The other actions are then cancelled.
+	 *
+	 * @param  actions
+	 *         The actions to execute
+	 * @param  <T>
+	 *         The result type of the actions
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the collection is null, empty or contains null
+	 *
+	 * @return PteroAction completed like the first action that completes
+	 *
+	 * @see    #anyOf(Collection)
+	 */
+	static <T> PteroAction<T> race(Collection<? extends PteroAction<? extends T>> actions) {
+		return new AnyOfPteroAction<>(checkActions(actions), true);
+	}
+
+	/**
+	 * Creates a PteroAction that executes the provided actions concurrently and completes like the first
+	 * action that completes, whether it succeeded or failed. The other actions are then cancelled.
+	 *
+	 * @param  first
+	 *         The first action to execute
+	 * @param  others
+	 *         The other actions to execute
+	 * @param  <T>
+	 *         The result type of the actions
+	 *
+	 * @throws IllegalArgumentException
+	 *         If one of the actions is null
+	 *
+	 * @return PteroAction completed like the first action that completes
+	 *
+	 * @see    #race(Collection)
+	 */
+	@SafeVarargs
+	static <T> PteroAction<T> race(PteroAction<? extends T> first, PteroAction<? extends T>... others) {
+		List<PteroAction<? extends T>> list = new ArrayList<>(others.length + 1);
+		list.add(first);
+		for (PteroAction<? extends T> other : others) list.add(other);
+		return race(list);
+	}
+
+	private static <T> List<PteroAction<? extends T>> checkActions(
+			Collection<? extends PteroAction<? extends T>> actions) {
+		Checks.notEmpty(actions, "Actions");
+		List<PteroAction<? extends T>> list = new ArrayList<>(actions);
+		list.forEach(action -> Checks.notNull(action, "Action"));
+		return list;
+	}
+
 	/**
 	 * Blocks the current Thread and awaits the completion of a Request.
 	 * <br>Used for synchronous logic.
@@ -155,6 +373,43 @@ public interface PteroAction<T> {
 	 */
 	void executeAsync(Consumer<? super T> success, Consumer<? super Throwable> failure);
 
+	/**
+	 * Submits a Request for execution and provides a {@link CompletableFuture} representing its completion.
+	 * <br>Cancelling the future cancels the Request, and aborts it if it was already sent.
+	 *
+	 * <p><b>This method is asynchronous</b>
+	 *
+	 * @return Future of the response value
+	 *
+	 * @see    #submit(boolean)
+	 */
+	default CompletableFuture<T> submit() {
+		return submit(true);
+	}
+
+	/**
+	 * Submits a Request for execution and provides a {@link CompletableFuture} representing its completion.
+	 * <br>Cancelling the future cancels the Request, and aborts it if it was already sent.
+	 * Failures complete the future exceptionally with the original exception, and the deadline of the
+	 * action fails it with a {@link java.util.concurrent.TimeoutException TimeoutException}.
+	 *
+	 * <p><b>This method is asynchronous</b>
+	 *
+	 * @param  shouldQueue
+	 *         Whether the Request should automatically handle rate limitations (default true)
+	 *
+	 * <p>The default implementation completes the future with the callbacks of {@link #executeAsync(Consumer, Consumer)},
+	 * so cancelling the future doesn't cancel the Request.
+	 *
+	 * @return Future of the response value, which fails with a {@link RateLimitedException}
+	 *         if the Request was rate limited and {@code shouldQueue} is false
+	 */
+	default CompletableFuture<T> submit(boolean shouldQueue) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		executeAsync(future::complete, future::completeExceptionally);
+		return future;
+	}
+
 	/**
 	 * Schedules a timeout for this PteroAction instance.
 	 * <br>If the request doesn't get executed within the timeout, it will fail.
@@ -184,12 +439,45 @@ public interface PteroAction<T> {
 		return deadline(timeout <= 0 ? 0 : System.currentTimeMillis() + unit.toMillis(timeout));
 	}
 
+	/**
+	 * Intermediate operator that returns a modified PteroAction.
+	 *
+	 * <p>This does not modify the instance but returns a new PteroAction which completes with the fallback value
+	 * if the action doesn't complete within the timeout. The action is then cancelled.
+	 * <br>Unlike {@link #timeout(long, TimeUnit)}, which fails the action, this keeps the caller responsive
+	 * when a value such as a stale or default one is acceptable.
+	 *
+	 * <h2>Example</h2>
+	 * <pre>{@code
+	 * server.retrieveUtilization()
+	 *       .timeoutFallback(2, TimeUnit.SECONDS, () -> lastUtilization)
+	 *       .executeAsync(this::render);
+	 * }</pre>
+	 *
+	 * @param  timeout
+	 *         The timeout to use
+	 * @param  unit
+	 *         {@link TimeUnit TimeUnit} for the timeout value
+	 * @param  fallback
+	 *         Supplier of the value to complete with once the timeout is reached
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided time unit or fallback is null
+	 *
+	 * @return PteroAction with timeout fallback
+	 */
+	default PteroAction<T> timeoutFallback(long timeout, TimeUnit unit, Supplier<? extends T> fallback) {
+		Checks.notNull(unit, "TimeUnit");
+		Checks.notNull(fallback, "Fallback");
+		return new TimeoutFallbackPteroAction<>(this, timeout, unit, fallback);
+	}
+
 	/**
 	 * Similar to {@link #timeout(long, TimeUnit)}, but schedules a deadline when request has to be completed.
 	 * <br>If the deadline is reached, the request will fail with a {@link java.util.concurrent.TimeoutException TimeoutException}.
 	 *
-	 * <p>This does not mean that the request will immediately timeout when the deadline is reached. P4J will check the deadline
-	 * right before executing the request, and it will only timeout if the deadline has passed.
+	 * <p>P4J checks the deadline right before executing the request, and aborts the request
+	 * if it is still in flight once the deadline has passed.
 	 *
 	 * <h2>Example</h2>
 	 * <pre>{@code
@@ -208,6 +496,92 @@ public interface PteroAction<T> {
 	 */
 	PteroAction<T> deadline(long timestamp);
 
+	/**
+	 * Sets the {@link Priority Priority} of this PteroAction in the rate limiter queue.
+	 * <br>When requests are waiting for the rate limit to reset, requests with a higher priority are executed first.
+	 *
+	 * <p>Requests that have been waiting for a while are gradually promoted, so lower priorities can't be starved.
+	 * This has no effect on actions that don't execute a request, the default implementation ignores the priority.
+	 *
+	 * <h2>Example</h2>
+	 * <pre>{@code
+	 * server.kill()
+	 *       .priority(Priority.CRITICAL) // jump ahead of queued bulk requests
+	 *       .executeAsync();
+	 * }</pre>
+	 *
+	 * @param  priority
+	 *         The priority to use, null to use {@link Priority#NORMAL}
+	 *
+	 * @return The same PteroAction with the applied priority
+	 */
+	default PteroAction<T> priority(Priority priority) {
+		return this;
+	}
+
+	/**
+	 * Sets the tenant of this PteroAction, which identifies the caller when several subsystems share one P4J instance.
+	 * <br>When requests are waiting in the rate limiter queue, every tenant receives a share of the requests that are sent
+	 * proportional to its weight, configured with {@link PteroBuilder#setTenantWeight(String, int)}.
+	 * A tenant that queues many requests can't delay the requests of the other tenants for long.
+	 *
+	 * <p>The {@link Priority Priority} orders the requests of a single tenant.
+	 * This has no effect on actions that don't execute a request, the default implementation ignores the tenant.
+	 *
+	 * <h2>Example</h2>
+	 * <pre>{@code
+	 * api.retrieveServers()
+	 *       .tenant("billing-sync")
+	 *       .executeAsync(servers -> ...);
+	 * }</pre>
+	 *
+	 * @param  tenant
+	 *         The tenant, null to use the default tenant of untagged actions
+	 *
+	 * @return The same PteroAction with the applied tenant
+	 */
+	default PteroAction<T> tenant(String tenant) {
+		return this;
+	}
+
+	/**
+	 * Enables/Disables coalescing of this PteroAction with identical requests.
+	 *
+	 * <p>When enabled, a GET request that is executed while an identical request is already in flight
+	 * with the same API key doesn't send a new request to the panel. It shares the response of the in-flight request instead,
+	 * saving the rate limit budget. Requests that modify the panel, and requests for single-use URLs
+	 * or tokens, are never coalesced. The default implementation ignores this setting.
+	 *
+	 * <p>Default: <b>true (enabled)</b>
+	 *
+	 * @param  enable
+	 *         False - always send a new request to the panel
+	 *
+	 * @return The same PteroAction with the applied setting
+	 */
+	default PteroAction<T> coalesce(boolean enable) {
+		return this;
+	}
+
+	/**
+	 * Enables/Disables the {@link be.raft.pelican.requests.ResponseCache ResponseCache} for this PteroAction.
+	 *
+	 * <p>When disabled, a GET request always retrieves a fresh response from the panel. The fresh response is still
+	 * stored in the cache. This has no effect if no cache was configured with
+	 * {@link PteroBuilder#setResponseCache(be.raft.pelican.requests.ResponseCache)}.
+	 * The default implementation ignores this setting.
+	 *
+	 * <p>Default: <b>true (enabled)</b>
+	 *
+	 * @param  enable
+	 *         False - skip the cache lookup
+	 *
+	 * @return The same PteroAction with the applied setting
+	 */
+	default PteroAction<T> useResponseCache(boolean enable) {
+		return this;
+	}
+
 	/**
 	 * Intermediate operator that returns a modified PteroAction.
 	 *
@@ -342,7 +716,8 @@ public interface PteroAction<T> {
 	 * }</pre>
 	 *
 	 * @param  condition
-	 *         A condition predicate that decides whether to apply the flat map operator or not
+	 *         A condition predicate that decides whether to apply the flat map operator or not,
+	 *         the resulting action completes with {@code null} when it doesn't
 	 * @param  flatMap
 	 *         The mapping function to apply to the action result, must return a PteroAction
 	 *
@@ -20,10 +20,27 @@ import be.raft.pelican.application.entities.PteroApplication;
 import be.raft.pelican.client.entities.PteroClient;
 import be.raft.pelican.entities.P4J;
 import be.raft.pelican.entities.impl.P4JImpl;
+import be.raft.pelican.requests.AdaptiveConcurrency;
+import be.raft.pelican.requests.CircuitBreaker;
+import be.raft.pelican.requests.HedgingPolicy;
+import be.raft.pelican.requests.JsonCodec;
+import be.raft.pelican.requests.MetricsListener;
+import be.raft.pelican.requests.QueuePolicy;
+import be.raft.pelican.requests.RequestInterceptor;
+import be.raft.pelican.requests.ResponseCache;
+import be.raft.pelican.requests.RetryPolicy;
+import be.raft.pelican.utils.Checks;
+import be.raft.pelican.utils.P4JLogger;
 import be.raft.pelican.utils.config.EndpointConfig;
 import be.raft.pelican.utils.config.SessionConfig;
 import be.raft.pelican.utils.config.ThreadingConfig;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
+import java.util.function.Function;
 import okhttp3.OkHttpClient;
 
 /**
@@ -33,15 +50,32 @@ public class PteroBuilder {
 
 	private String applicationUrl;
 	private String token;
+	// additional API keys, mapped to their panel URL or null for the primary URL
+	private final Map<String, String> additionalTokens = new LinkedHashMap<>();
 
 	private ExecutorService actionPool = null;
 	private ExecutorService callbackPool = null;
 	private ScheduledExecutorService rateLimitPool = null;
 	private ExecutorService supplierPool = null;
+	private boolean virtualThreads = false;
 
 	private OkHttpClient httpClient = null;
 	private OkHttpClient webSocketClient = null;
 	private String userAgent = null;
+	private int maxConcurrentRequests = SessionConfig.DEFAULT_MAX_CONCURRENT_REQUESTS;
+	private boolean rateLimitPacing = false;
+	private ResponseCache responseCache = null;
+	private RetryPolicy retryPolicy = null;
+	private CircuitBreaker circuitBreaker = null;
+	private AdaptiveConcurrency adaptiveConcurrency = null;
+	private HedgingPolicy hedgingPolicy = null;
+	private QueuePolicy queuePolicy = null;
+	private JsonCodec jsonCodec = null;
+	private MetricsListener metricsListener = null;
+	private final List<RequestInterceptor> interceptors = new ArrayList<>();
+	private final Map<String, Integer> tenantWeights = new HashMap<>();
+	private int warmupConnections = 0;
+	private final List<Function<PteroApplication, ? extends PteroAction<?>>> prefetch = new ArrayList<>();
 
 	private PteroBuilder(String applicationUrl, String token) {
 		this.applicationUrl = applicationUrl;
@@ -134,6 +168,51 @@ public class PteroBuilder {
 		return this;
 	}
 
+	/**
+	 * Adds an additional API key for the panel set with {@link #setApplicationUrl(String)}.
+	 *
+	 * <p>Since the panel rate limits every API key separately, P4J spreads requests across all keys, each with its
+	 * own rate limit and {@link #setMaxConcurrentRequests(int) concurrency limit}. Reads are sent with the least loaded key,
+	 * while writes on the same resource always use the same key so they are executed in order.
+	 * All keys must have access to the same resources.
+	 *
+	 * @param  token
+	 *         The additional API key
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided token is empty or null
+	 *
+	 * @return The PteroBuilder instance. Useful for chaining.
+	 *
+	 * @see #addEndpoint(String, String)
+	 */
+	public PteroBuilder addToken(String token) {
+		Checks.notBlank(token, "API Key");
+		this.additionalTokens.put(token, null);
+		return this;
+	}
+
+	/**
+	 * Adds an additional API key for another URL serving the same panel, for example a second instance behind
+	 * a different hostname. The key is used the same way as keys added with {@link #addToken(String)}.
+	 *
+	 * @param  url
+	 *         The URL of the panel
+	 * @param  token
+	 *         The additional API key
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided URL or token is empty or null
+	 *
+	 * @return The PteroBuilder instance. Useful for chaining.
+	 */
+	public PteroBuilder addEndpoint(String url, String token) {
+		Checks.notBlank(url, "Application URL");
+		Checks.notBlank(token, "API Key");
+		this.additionalTokens.put(token, url);
+		return this;
+	}
+
 	/**
 	 * Sets the {@link okhttp3.OkHttpClient OkHttpClient} that will be used by P4Js requester.
 	 *
@@ -155,6 +234,7 @@ public class PteroBuilder {
 	 * <br><b>Only change this pool if you know what you're doing.</b>
 	 *
 	 * <p>This is used to queue the request and finalize its request body for {@link PteroAction#executeAsync()} tasks.
+	 * The requests themselves are executed asynchronously, see {@link #setMaxConcurrentRequests(int)}.
 	 *
 	 * <p>Default: {@link ThreadPoolExecutor} with 1 thread.
 	 *
@@ -229,6 +309,30 @@ public class PteroBuilder {
 		return this;
 	}
 
+	/**
+	 * Enables/Disables virtual threads for the action, callback and supplier pools.
+	 *
+	 * <p>When enabled and supported by the runtime (Java 21 or newer), every pool that wasn't set explicitly starts a
+	 * new virtual thread for each task. Blocking operations, such as {@link PteroAction#execute()} inside a callback,
+	 * {@link be.raft.pelican.requests.PaginationAction#all()} or composed actions, then no longer exhaust the small
+	 * default pools. On older runtimes a warning is logged and the default pools are used.
+	 * <br>Since actions are no longer queued by a single thread, actions submitted with {@link PteroAction#executeAsync()}
+	 * may be queued in a different order than they were submitted.
+	 *
+	 * <p>The rate limit pool is not affected, it only schedules short tasks.
+	 *
+	 * <p>Default: <b>false (disabled)</b>
+	 *
+	 * @param  enable
+	 *         True - use virtual threads when available
+	 *
+	 * @return The PteroBuilder instance. Useful for chaining.
+	 */
+	public PteroBuilder setVirtualThreads(boolean enable) {
+		this.virtualThreads = enable;
+		return this;
+	}
+
 	/**
 	 * Sets the {@link okhttp3.OkHttpClient OkHttpClient} that will be used by P4Js websocket client.
 	 * <br>This can be used to set things such as connection timeout and proxy.
@@ -243,6 +347,279 @@ public class PteroBuilder {
 		return this;
 	}
 
+	/**
+	 * Sets the maximum amount of requests that can be in flight at the same time.
+	 *
+	 * <p>Requests are sent asynchronously through the {@link okhttp3.Dispatcher Dispatcher} of the
+	 * {@link okhttp3.OkHttpClient OkHttpClient}, this limit bounds how many queued requests the rate limiter
+	 * will dispatch before waiting for a response. If you provide your own client with {@link #setHttpClient(OkHttpClient)},
+	 * make sure its dispatcher allows at least this many requests per host.
+	 *
+	 * <p>Default: <b>5</b>
+	 *
+	 * @param  maxConcurrentRequests
+	 *         The maximum amount of concurrent requests, must be at least 1
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided amount is lower than 1
+	 *
+	 * @return The PteroBuilder instance. Useful for chaining.
+	 */
+	public PteroBuilder setMaxConcurrentRequests(int maxConcurrentRequests) {
+		Checks.check(maxConcurrentRequests > 0, "Max concurrent requests must be at least 1");
+		this.maxConcurrentRequests = maxConcurrentRequests;
+		return this;
+	}
+
+	/**
+	 * Enables/Disables proactive pacing of queued requests.
+	 *
+	 * <p>By default, P4J only backs off once the panel reports that no requests are remaining, which causes bulk jobs to
+	 * burst into the limit and then wait for the whole window to reset. When pacing is enabled, the rate limiter uses the
+	 * observed {@code X-RateLimit-Limit/Remaining/Reset} headers to spread the remaining requests evenly over the
+	 * rate limit window instead.
+	 *
+	 * <p>The current budget can be retrieved with {@link be.raft.pelican.requests.RateLimiter#getBudget()}.
+	 *
+	 * <p>Default: <b>false (disabled)</b>
+	 *
+	 * @param  enable
+	 *         True - pace queued requests using the observed rate limit budget
+	 *
+	 * @return The PteroBuilder instance. Useful for chaining.
+	 */
+	public PteroBuilder setRateLimitPacing(boolean enable) {
+		this.rateLimitPacing = enable;
+		return this;
+	}
+
+	/**
+	 * Sets the {@link ResponseCache ResponseCache} used to serve GET requests without contacting the panel.
+	 *
+	 * <p>Cached responses are invalidated when a request that modifies the same resource succeeds, and single
+	 * actions can skip the cache with {@link PteroAction#useResponseCache(boolean)}.
+	 * <br>See {@link be.raft.pelican.requests.LruResponseCache LruResponseCache} for the default implementation.
+	 *
+	 * <p>Default: <b>null (disabled)</b>
+	 *
+	 * @param  responseCache
+	 *         The cache to use, or null to disable response caching
+	 *
+	 * @return The PteroBuilder instance. Useful for chaining.
+	 */
+	public PteroBuilder setResponseCache(ResponseCache responseCache) {
+		this.responseCache = responseCache;
+		return this;
+	}
+
+	/**
+	 * Sets the {@link RetryPolicy RetryPolicy} used when a request fails with a 5xx status code or a connection error.
+	 *
+	 * <p>Default: <b>{@link RetryPolicy#create()}</b>, use {@link RetryPolicy#none()} to disable retries
+	 *
+	 * @param  retryPolicy
+	 *         The retry policy, or null to use the default policy
+	 *
+	 * @return The PteroBuilder instance. Useful for chaining.
+	 */
+	public PteroBuilder setRetryPolicy(RetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+		return this;
+	}
+
+	/**
+	 * Sets the {@link CircuitBreaker CircuitBreaker} that stops sending requests while the panel is unavailable.
+	 *
+	 * <p>While the breaker is open, requests fail immediately with a
+	 * {@link be.raft.pelican.exceptions.CircuitBreakerOpenException CircuitBreakerOpenException}.
+	 * Add a {@link CircuitBreaker.Listener Listener} to the breaker to shed load when it opens.
+	 *
+	 * <p>Default: <b>null (disabled)</b>
+	 *
+	 * @param  circuitBreaker
+	 *         The circuit breaker, or null to disable it
+	 *
+	 * @return The PteroBuilder instance. Useful for chaining.
+	 */
+	public PteroBuilder setCircuitBreaker(CircuitBreaker circuitBreaker) {
+		this.circuitBreaker = circuitBreaker;
+		return this;
+	}
+
+	/**
+	 * Sets the {@link AdaptiveConcurrency AdaptiveConcurrency} that adapts the amount of in-flight requests of every
+	 * API key to the latency and the errors of the panel, instead of using a fixed {@link #setMaxConcurrentRequests(int) limit}.
+	 * <br>The max concurrent requests are then used as the initial limit.
+	 *
+	 * <p>If you provide your own client with {@link #setHttpClient(OkHttpClient)}, make sure its dispatcher allows
+	 * at least the {@link AdaptiveConcurrency#setLimits(int, int) max limit} per host.
+	 *
+	 * <p>Default: <b>null (fixed limit)</b>
+	 *
+	 * @param  adaptiveConcurrency
+	 *         The adaptive concurrency settings, or null to use a fixed limit
+	 *
+	 * @return The PteroBuilder instance. Useful for chaining.
+	 */
+	public PteroBuilder setAdaptiveConcurrency(AdaptiveConcurrency adaptiveConcurrency) {
+		this.adaptiveConcurrency = adaptiveConcurrency;
+		return this;
+	}
+
+	/**
+	 * Sets the weight of a tenant, the share of queued requests it can send compared to the other tenants.
+	 * <br>When the rate limiter is saturated, a tenant with weight 3 sends three requests for every request
+	 * of a tenant with weight 1. Tenants are assigned with {@link PteroAction#tenant(String)}.
+	 *
+	 * <p>Default: <b>1</b> for every tenant
+	 *
+	 * @param  tenant
+	 *         The tenant, null for the default tenant of untagged actions
+	 * @param  weight
+	 *         The weight of the tenant, must be at least 1
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the weight is lower than 1
+	 *
+	 * @return The PteroBuilder instance. Useful for chaining.
+	 */
+	public PteroBuilder setTenantWeight(String tenant, int weight) {
+		Checks.check(weight > 0, "Weight must be at least 1");
+		this.tenantWeights.put(tenant, weight);
+		return this;
+	}
+
+	/**
+	 * Sets the {@link QueuePolicy QueuePolicy} that bounds the queue of pending requests of every API key,
+	 * and fails requests that waited too long in the queue.
+	 *
+	 * <p>Default: <b>null (unbounded)</b>
+	 *
+	 * @param  queuePolicy
+	 *         The queue policy, or null for an unbounded queue
+	 *
+	 * @return The PteroBuilder instance. Useful for chaining.
+	 */
+	public PteroBuilder setQueuePolicy(QueuePolicy queuePolicy) {
+		this.queuePolicy = queuePolicy;
+		return this;
+	}
+
+	/**
+	 * Sets the {@link HedgingPolicy HedgingPolicy} that sends a duplicate of GET requests which are slower than usual,
+	 * using the first response.
+	 * <br>Duplicates consume the rate limit budget, and are no longer sent when the remaining budget is low.
+	 *
+	 * <p>Default: <b>null (disabled)</b>
+	 *
+	 * @param  hedgingPolicy
+	 *         The hedging policy, or null to disable hedging
+	 *
+	 * @return The PteroBuilder instance. Useful for chaining.
+	 */
+	public PteroBuilder setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+		this.hedgingPolicy = hedgingPolicy;
+		return this;
+	}
+
+	/**
+	 * Sets the {@link JsonCodec JsonCodec} used to decode responses and websocket frames,
+	 * and to encode request bodies and websocket frames.
+	 *
+	 * <p>Default: <b>{@link JsonCodec#getDefault()}</b>, backed by org.json
+	 *
+	 * @param  jsonCodec
+	 *         The codec, or null to use the default codec
+	 *
+	 * @return The PteroBuilder instance. Useful for chaining.
+	 */
+	public PteroBuilder setJsonCodec(JsonCodec jsonCodec) {
+		this.jsonCodec = jsonCodec;
+		return this;
+	}
+
+	/**
+	 * Sets the {@link MetricsListener MetricsListener} receiving the metrics of the request pipeline, such as
+	 * queue, network and decode latencies, queue depth, rate limits, retries and callback lag.
+	 * <br>See {@link be.raft.pelican.requests.InMemoryMetrics InMemoryMetrics} for a ready-made implementation.
+	 *
+	 * <p>Default: <b>null (disabled)</b>
+	 *
+	 * @param  metricsListener
+	 *         The listener, or null to disable metrics
+	 *
+	 * @return The PteroBuilder instance. Useful for chaining.
+	 */
+	public PteroBuilder setMetricsListener(MetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+		return this;
+	}
+
+	/**
+	 * Adds a {@link RequestInterceptor RequestInterceptor} called around every request sent to the panel.
+	 * <br>Interceptors can add headers, inspect or replace responses, and complete requests without a network call.
+	 * They are called in the order they were added, and in the reverse order for responses.
+	 *
+	 * @param  interceptor
+	 *         The interceptor
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided interceptor is null
+	 *
+	 * @return The PteroBuilder instance. Useful for chaining.
+	 */
+	public PteroBuilder addInterceptor(RequestInterceptor interceptor) {
+		Checks.notNull(interceptor, "Interceptor");
+		this.interceptors.add(interceptor);
+		return this;
+	}
+
+	/**
+	 * Sets the amount of connections opened to every panel URL when P4J is built, so the first requests
+	 * don't have to wait for the DNS lookup and the TCP and TLS handshakes.
+	 * <br>The connections are kept alive by the connection pool of the {@link #setHttpClient(OkHttpClient) HTTP client},
+	 * which keeps at most 5 idle connections for 5 minutes by default.
+	 *
+	 * <p>Use {@link #buildApplicationAsync()} or {@link #buildClientAsync()} to wait until the connections are open.
+	 *
+	 * <p>Default: <b>0 (disabled)</b>
+	 *
+	 * @param  connections
+	 *         The amount of connections to open per URL
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided amount is negative
+	 *
+	 * @return The PteroBuilder instance. Useful for chaining.
+	 */
+	public PteroBuilder setWarmupConnections(int connections) {
+		Checks.notNegative(connections, "Connections");
+		this.warmupConnections = connections;
+		return this;
+	}
+
+	/**
+	 * Adds an action that is executed when a {@link PteroApplication PteroApplication} is built, for example
+	 * {@code app -> app.retrieveNodes()}. Prefetched actions are executed in parallel,
+	 * and populate the {@link #setResponseCache(ResponseCache) response cache} for the routes it caches.
+	 * A response cache is required to keep their results.
+	 *
+	 * <p>Use {@link #buildApplicationAsync()} to wait until the data has been retrieved.
+	 *
+	 * @param  prefetch
+	 *         Function returning the action to execute
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided function is null
+	 *
+	 * @return The PteroBuilder instance. Useful for chaining.
+	 */
+	public PteroBuilder addPrefetch(Function<PteroApplication, ? extends PteroAction<?>> prefetch) {
+		Checks.notNull(prefetch, "Prefetch");
+		this.prefetch.add(prefetch);
+		return this;
+	}
+
 	/**
 	 * Sets the user agent that will be used when P4J makes a Request
 	 * using the {@link okhttp3.OkHttpClient OkHttpClient}
@@ -292,15 +669,30 @@ public class PteroBuilder {
 	}
 
 	private P4J build() {
-		EndpointConfig endpointConfig = new EndpointConfig(applicationUrl, token);
-		ThreadingConfig threadingConfig = new ThreadingConfig();
+		List<EndpointConfig> endpoints = new ArrayList<>();
+		endpoints.add(new EndpointConfig(applicationUrl, token));
+		additionalTokens.forEach(
+				(key, url) -> endpoints.add(new EndpointConfig(url == null ? applicationUrl : url, key)));
+		ThreadingConfig threadingConfig = new ThreadingConfig(virtualThreads);
 		threadingConfig.setCallbackPool(callbackPool);
 		threadingConfig.setActionPool(actionPool);
 		threadingConfig.setRateLimitPool(rateLimitPool);
 		threadingConfig.setSupplierPool(supplierPool);
-		SessionConfig sessionConfig = new SessionConfig(httpClient, webSocketClient);
+		SessionConfig sessionConfig =
+				new SessionConfig(httpClient, webSocketClient, maxConcurrentRequests, endpoints.size());
 		sessionConfig.setUserAgent(userAgent);
-		return new P4JImpl(endpointConfig, threadingConfig, sessionConfig);
+		sessionConfig.setRateLimitPacing(rateLimitPacing);
+		sessionConfig.setResponseCache(responseCache);
+		sessionConfig.setRetryPolicy(retryPolicy);
+		sessionConfig.setCircuitBreaker(circuitBreaker);
+		sessionConfig.setAdaptiveConcurrency(adaptiveConcurrency);
+		sessionConfig.setHedgingPolicy(hedgingPolicy);
+		sessionConfig.setQueuePolicy(queuePolicy);
+		sessionConfig.setTenantWeights(tenantWeights);
+		sessionConfig.setJsonCodec(jsonCodec);
+		sessionConfig.setMetricsListener(metricsListener);
+		sessionConfig.setInterceptors(interceptors);
+		return new P4JImpl(endpoints, threadingConfig, sessionConfig);
 	}
 
 	/**
@@ -311,14 +703,44 @@ public class PteroBuilder {
 	 * to the <b>Client API</b>.
 	 *
 	 * @throws IllegalArgumentException
-	 *         If the provided URL or token is empty or null.
+	 *         If the provided URL or token is empty or null,
+	 *         or actions are prefetched without a {@link #setResponseCache(ResponseCache) response cache}.
 	 *
 	 * @return A PteroApplication instance that is ready to execute requests.
 	 *
 	 * @see PteroBuilder#buildClient()
 	 */
 	public PteroApplication buildApplication() {
-		return build().asApplication();
+		checkPrefetch();
+		P4J api = build();
+		PteroApplication application = api.asApplication();
+		prepareInBackground(prepare(api, application));
+		return application;
+	}
+
+	/**
+	 * Builds a new {@link be.raft.pelican.application.entities.PteroApplication PteroApplication} instance
+	 * like {@link #buildApplication()}, once the {@link #setWarmupConnections(int) connections have been opened}
+	 * and the {@link #addPrefetch(Function) prefetched data} has been retrieved.
+	 *
+	 * <p>If a prefetched action fails, the returned future fails with its error and the instance is shut down.
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided URL or token is empty or null,
+	 *         or actions are prefetched without a {@link #setResponseCache(ResponseCache) response cache}.
+	 *
+	 * @return Future completed with a PteroApplication instance that is ready to execute requests.
+	 */
+	public CompletableFuture<PteroApplication> buildApplicationAsync() {
+		checkPrefetch();
+		P4J api = build();
+		PteroApplication application = api.asApplication();
+		return prepare(api, application)
+				.whenComplete((v, error) -> {
+					// nobody has a reference to the instance if it failed to build
+					if (error != null) api.shutdownNow();
+				})
+				.thenApply(v -> application);
 	}
 
 	/**
@@ -337,6 +759,55 @@ public class PteroBuilder {
 	 * @see PteroBuilder#buildApplication()
 	 */
 	public PteroClient buildClient() {
-		return build().asClient();
+		P4J api = build();
+		prepareInBackground(prepare(api, null));
+		return api.asClient();
+	}
+
+	/**
+	 * Builds a new {@link be.raft.pelican.client.entities.PteroClient PteroClient} instance
+	 * like {@link #buildClient()}, once the {@link #setWarmupConnections(int) connections have been opened}.
+	 *
+	 * <p>Connections that can't be opened are only logged, the returned future always completes with the instance.
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided URL or token is empty or null.
+	 *
+	 * @return Future completed with a PteroClient instance that is ready to execute requests.
+	 */
+	public CompletableFuture<PteroClient> buildClientAsync() {
+		P4J api = build();
+		return prepare(api, null).thenApply(v -> api.asClient());
+	}
+
+	private void checkPrefetch() {
+		// the results are only kept by the cache, without it the requests would be wasted
+		Checks.check(prefetch.isEmpty() || responseCache != null, "Prefetching requires a response cache");
+	}
+
+	private CompletableFuture<Void> prepare(P4J api, PteroApplication application) {
+		CompletableFuture<Void> warmup = warmupConnections > 0
+				? api.getRequester().warmup(warmupConnections)
+				: CompletableFuture.completedFuture(null);
+		if (application == null || prefetch.isEmpty()) return warmup;
+
+		List<PteroAction<?>> actions = new ArrayList<>();
+		for (Function<PteroApplication, ? extends PteroAction<?>> function : prefetch)
+			actions.add(function.apply(application));
+
+		CompletableFuture<Void> prefetched =
+				PteroAction.<Object>batch(actions).submit().thenAccept(result -> {
+					if (!result.isSuccess())
+						throw new CompletionException(result.getFailures().get(0).getError());
+				});
+
+		return CompletableFuture.allOf(warmup, prefetched);
+	}
+
+	private static void prepareInBackground(CompletableFuture<Void> preparation) {
+		preparation.exceptionally(error -> {
+			P4JLogger.getLogger(PteroBuilder.class).warn("Failed to prefetch data", error);
+			return null;
+		});
 	}
 }
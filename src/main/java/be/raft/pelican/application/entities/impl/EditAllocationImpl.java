@@ -16,11 +16,15 @@
 
 package be.raft.pelican.application.entities.impl;
 
+import be.raft.pelican.PteroAction;
 import be.raft.pelican.application.entities.ApplicationAllocation;
 import be.raft.pelican.application.entities.Node;
 import be.raft.pelican.requests.PteroActionImpl;
 import be.raft.pelican.requests.Route;
 import be.raft.pelican.requests.action.AbstractAllocationAction;
+import be.raft.pelican.utils.ExceptionUtils;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import okhttp3.RequestBody;
 import org.json.JSONObject;
@@ -37,17 +41,54 @@ public class EditAllocationImpl extends AbstractAllocationAction {
 	}
 
 	@Override
-	public Void execute() {
-		PteroActionImpl.onRequestExecute(impl.getP4J(), Route.Nodes.DELETE_ALLOCATION.compile(allocation.getId()))
-				.execute();
-		return super.execute();
+	public Void execute(boolean shouldQueue) {
+		return await(submit(shouldQueue));
+	}
+
+	@Override
+	public CompletableFuture<Void> submit(boolean shouldQueue) {
+		// the allocation is recreated once the old one is deleted, cancelling the result cancels either request
+		CompletableFuture<Void> result = new CompletableFuture<>();
+		AtomicReference<CompletableFuture<Void>> create = new AtomicReference<>();
+		CompletableFuture<Void> delete = PteroActionImpl.<Void>onRequestExecute(
+						impl.getP4J(), Route.Nodes.DELETE_ALLOCATION.compile(allocation.getId()))
+				.submit(shouldQueue);
+
+		delete.whenComplete((ignored, error) -> {
+			if (error != null) {
+				result.completeExceptionally(ExceptionUtils.unwrap(error));
+				return;
+			}
+			if (result.isDone()) return;
+
+			CompletableFuture<Void> next = super.submit(shouldQueue);
+			create.set(next);
+			if (result.isCancelled()) next.cancel(false);
+			next.whenComplete((value, failure) -> {
+				if (failure == null) result.complete(value);
+				else result.completeExceptionally(ExceptionUtils.unwrap(failure));
+			});
+		});
+		result.whenComplete((value, error) -> {
+			if (!result.isCancelled()) return;
+			delete.cancel(false);
+			CompletableFuture<Void> next = create.get();
+			if (next != null) next.cancel(false);
+		});
+		return result;
 	}
 
 	@Override
 	public void executeAsync(Consumer<? super Void> success, Consumer<? super Throwable> failure) {
-		PteroActionImpl.onRequestExecute(impl.getP4J(), Route.Nodes.DELETE_ALLOCATION.compile(allocation.getId()))
-				.executeAsync();
-		super.executeAsync(success, failure);
+		submit(true).whenComplete((result, error) -> {
+			if (error == null) {
+				if (success == null) PteroAction.getDefaultSuccess().accept(result);
+				else success.accept(result);
+			} else {
+				if (failure == null) PteroAction.getDefaultFailure().accept(ExceptionUtils.unwrap(error));
+				else failure.accept(ExceptionUtils.unwrap(error));
+			}
+		});
 	}
 
 	@Override
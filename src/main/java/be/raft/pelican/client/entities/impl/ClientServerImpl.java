@@ -17,6 +17,7 @@
 package be.raft.pelican.client.entities.impl;
 
 import be.raft.pelican.PowerAction;
+import be.raft.pelican.Priority;
 import be.raft.pelican.PteroAction;
 import be.raft.pelican.client.entities.*;
 import be.raft.pelican.client.managers.*;
@@ -230,15 +231,21 @@ public class ClientServerImpl implements ClientServer {
 	@Override
 	public PteroAction<Void> setPower(PowerAction powerAction) {
 		JSONObject obj = new JSONObject().put("signal", powerAction.name().toLowerCase());
-		return PteroActionImpl.onRequestExecute(
-				impl.getP4J(), Route.Client.SET_POWER.compile(getIdentifier()), PteroActionImpl.getRequestBody(obj));
+		return PteroActionImpl.<Void>onRequestExecute(
+						impl.getP4J(),
+						Route.Client.SET_POWER.compile(getIdentifier()),
+						PteroActionImpl.getRequestBody(obj))
+				.priority(Priority.HIGH);
 	}
 
 	@Override
 	public PteroAction<Void> sendCommand(String command) {
 		JSONObject obj = new JSONObject().put("command", command);
-		return PteroActionImpl.onRequestExecute(
-				impl.getP4J(), Route.Client.SEND_COMMAND.compile(getIdentifier()), PteroActionImpl.getRequestBody(obj));
+		return PteroActionImpl.<Void>onRequestExecute(
+						impl.getP4J(),
+						Route.Client.SEND_COMMAND.compile(getIdentifier()),
+						PteroActionImpl.getRequestBody(obj))
+				.priority(Priority.HIGH);
 	}
 
 	@Override
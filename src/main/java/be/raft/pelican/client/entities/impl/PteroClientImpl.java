@@ -18,6 +18,7 @@ package be.raft.pelican.client.entities.impl;
 
 import be.raft.pelican.ClientType;
 import be.raft.pelican.PowerAction;
+import be.raft.pelican.Priority;
 import be.raft.pelican.PteroAction;
 import be.raft.pelican.client.entities.Account;
 import be.raft.pelican.client.entities.ClientServer;
@@ -56,15 +57,17 @@ public class PteroClientImpl implements PteroClient {
 	@Override
 	public PteroAction<Void> setPower(ClientServer server, PowerAction powerAction) {
 		JSONObject obj = new JSONObject().put("signal", powerAction.name().toLowerCase());
-		return PteroActionImpl.onRequestExecute(
-				api, Route.Client.SET_POWER.compile(server.getIdentifier()), PteroActionImpl.getRequestBody(obj));
+		return PteroActionImpl.<Void>onRequestExecute(
+						api, Route.Client.SET_POWER.compile(server.getIdentifier()), PteroActionImpl.getRequestBody(obj))
+				.priority(Priority.HIGH);
 	}
 
 	@Override
 	public PteroAction<Void> sendCommand(ClientServer server, String command) {
 		JSONObject obj = new JSONObject().put("command", command);
-		return PteroActionImpl.onRequestExecute(
-				api, Route.Client.SEND_COMMAND.compile(server.getIdentifier()), PteroActionImpl.getRequestBody(obj));
+		return PteroActionImpl.<Void>onRequestExecute(
+						api, Route.Client.SEND_COMMAND.compile(server.getIdentifier()), PteroActionImpl.getRequestBody(obj))
+				.priority(Priority.HIGH);
 	}
 
 	@Override
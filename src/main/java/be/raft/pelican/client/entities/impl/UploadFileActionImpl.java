@@ -122,6 +122,7 @@ public class UploadFileActionImpl extends PteroActionImpl<Void> implements Uploa
 					}
 				} else {
 					Response uploadResponse = new Response(response, -1);
+					uploadResponse.setCodec(p4j.getJsonCodec());
 					request.onFailure(new FileUploadException(response.code(), uploadResponse.getObject()));
 					try {
 						response.close();
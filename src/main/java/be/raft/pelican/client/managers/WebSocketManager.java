@@ -23,6 +23,7 @@ import be.raft.pelican.client.ws.WebSocketAction;
 import be.raft.pelican.client.ws.WebSocketClient;
 import be.raft.pelican.client.ws.events.connection.DisconnectedEvent;
 import be.raft.pelican.client.ws.hooks.IClientListenerManager;
+import be.raft.pelican.entities.impl.P4JImpl;
 import be.raft.pelican.utils.AwaitableClientListener;
 
 public class WebSocketManager {
@@ -44,6 +45,8 @@ public class WebSocketManager {
 	}
 
 	private void connect() {
+		// closed together with P4J
+		if (api.getP4J() instanceof P4JImpl) ((P4JImpl) api.getP4J()).registerWebSocket(this);
 		Thread thread = new Thread(client, "P4J-ClientWS");
 		thread.start();
 	}
@@ -66,9 +69,14 @@ public class WebSocketManager {
 	}
 
 	public void shutdown() {
+		if (api.getP4J() instanceof P4JImpl) ((P4JImpl) api.getP4J()).unregisterWebSocket(this);
 		client.shutdown();
 	}
 
+	public boolean isConnected() {
+		return client.isConnected();
+	}
+
 	public void authenticate() {
 		client.sendAuthenticate();
 	}
@@ -78,16 +86,15 @@ public class WebSocketManager {
 	}
 
 	public void request(RequestAction action) {
-		client.send(WebSocketAction.create(action.data, null));
+		client.send(action.data, null);
 	}
 
 	public void setPower(PowerAction power) {
-		client.send(
-				WebSocketAction.create(WebSocketAction.SET_STATE, power.name().toLowerCase()));
+		client.send(WebSocketAction.SET_STATE, power.name().toLowerCase());
 	}
 
 	public void sendCommand(String command) {
-		client.send(WebSocketAction.create(WebSocketAction.SEND_COMMAND, command));
+		client.send(WebSocketAction.SEND_COMMAND, command);
 	}
 
 	public enum RequestAction {
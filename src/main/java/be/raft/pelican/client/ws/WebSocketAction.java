@@ -16,6 +16,7 @@
 
 package be.raft.pelican.client.ws;
 
+import be.raft.pelican.requests.JsonCodec;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
@@ -28,10 +29,14 @@ public final class WebSocketAction {
 	public static final String SEND_STATS = "send stats";
 
 	public static String create(String event, String argument) {
+		return create(JsonCodec.getDefault(), event, argument);
+	}
+
+	public static String create(JsonCodec codec, String event, String argument) {
 		JSONObject returnable = new JSONObject();
 		JSONArray args = new JSONArray();
 		args.put(argument);
 		returnable.put("event", event).put("args", args);
-		return returnable.toString();
+		return codec.encode(returnable);
 	}
 }
@@ -107,6 +107,10 @@ public class WebSocketClient extends WebSocketListener implements Runnable {
 		webSocket.close(1000, "Client shutting down");
 	}
 
+	public boolean send(String event, String argument) {
+		return send(WebSocketAction.create(client.getP4J().getJsonCodec(), event, argument));
+	}
+
 	public boolean send(String message) {
 		if (!connected) throw new IllegalStateException("Client isn't connected to server websocket");
 		return webSocket.send(message);
@@ -124,7 +128,7 @@ public class WebSocketClient extends WebSocketListener implements Runnable {
 						(response, request) ->
 								response.getObject().getJSONObject("data").getString("token"))
 				.execute());
-		send(WebSocketAction.create(WebSocketAction.AUTH, t));
+		send(WebSocketAction.AUTH, t);
 	}
 
 	private void onEvent(JSONObject json) {
@@ -172,7 +176,7 @@ public class WebSocketClient extends WebSocketListener implements Runnable {
 
 	@Override
 	public void onMessage(@NotNull WebSocket webSocket, @NotNull String text) {
-		onEvent(new JSONObject(text));
+		onEvent(client.getP4J().getJsonCodec().decodeObject(text));
 	}
 
 	@Override
@@ -18,7 +18,21 @@ package be.raft.pelican.entities;
 
 import be.raft.pelican.application.entities.PteroApplication;
 import be.raft.pelican.client.entities.PteroClient;
+import be.raft.pelican.requests.AdaptiveConcurrency;
+import be.raft.pelican.requests.CircuitBreaker;
+import be.raft.pelican.requests.HedgingPolicy;
+import be.raft.pelican.requests.JsonCodec;
+import be.raft.pelican.requests.MetricsListener;
+import be.raft.pelican.requests.QueuePolicy;
+import be.raft.pelican.requests.RequestInterceptor;
 import be.raft.pelican.requests.Requester;
+import be.raft.pelican.requests.ResponseCache;
+import be.raft.pelican.requests.RetryPolicy;
+import be.raft.pelican.requests.ShutdownResult;
+import be.raft.pelican.utils.config.EndpointConfig;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import okhttp3.OkHttpClient;
@@ -31,6 +45,8 @@ public interface P4J {
 
 	String getApplicationUrl();
 
+	List<EndpointConfig> getEndpoints();
+
 	OkHttpClient getHttpClient();
 
 	ExecutorService getCallbackPool();
@@ -43,9 +59,57 @@ public interface P4J {
 
 	OkHttpClient getWebSocketClient();
 
+	int getMaxConcurrentRequests();
+
+	boolean isRateLimitPacing();
+
+	ResponseCache getResponseCache();
+
+	RetryPolicy getRetryPolicy();
+
+	CircuitBreaker getCircuitBreaker();
+
+	AdaptiveConcurrency getAdaptiveConcurrency();
+
+	HedgingPolicy getHedgingPolicy();
+
+	QueuePolicy getQueuePolicy();
+
+	Map<String, Integer> getTenantWeights();
+
+	JsonCodec getJsonCodec();
+
+	MetricsListener getMetricsListener();
+
+	List<RequestInterceptor> getInterceptors();
+
 	String getUserAgent();
 
 	PteroClient asClient();
 
 	PteroApplication asApplication();
+
+	/**
+	 * Shuts down P4J gracefully.
+	 * <br>New requests are rejected with a {@link java.util.concurrent.RejectedExecutionException}
+	 * and websockets are closed. Once every queued and in-flight request has completed, the thread pools
+	 * and HTTP clients created by P4J are closed. Pools and clients provided to the builder are left untouched.
+	 *
+	 * <p>Call {@link #shutdownNow()} to stop waiting for the remaining requests.
+	 *
+	 * @return Future completed once every resource has been released
+	 */
+	CompletableFuture<ShutdownResult> shutdown();
+
+	/**
+	 * Shuts down P4J immediately.
+	 * <br>Queued requests are cancelled and in-flight requests are aborted, both failing with a
+	 * {@link java.util.concurrent.CancellationException}. Websockets, and the thread pools and HTTP clients
+	 * created by P4J are closed.
+	 *
+	 * @return Report of the requests that were dropped
+	 */
+	ShutdownResult shutdownNow();
+
+	boolean isShutdown();
 }
@@ -20,13 +20,33 @@ import be.raft.pelican.application.entities.PteroApplication;
 import be.raft.pelican.application.entities.impl.PteroApplicationImpl;
 import be.raft.pelican.client.entities.PteroClient;
 import be.raft.pelican.client.entities.impl.PteroClientImpl;
+import be.raft.pelican.client.managers.WebSocketManager;
 import be.raft.pelican.entities.P4J;
+import be.raft.pelican.requests.AdaptiveConcurrency;
+import be.raft.pelican.requests.CircuitBreaker;
+import be.raft.pelican.requests.HedgingPolicy;
+import be.raft.pelican.requests.JsonCodec;
+import be.raft.pelican.requests.MetricsListener;
+import be.raft.pelican.requests.QueuePolicy;
+import be.raft.pelican.requests.RequestInterceptor;
 import be.raft.pelican.requests.Requester;
+import be.raft.pelican.requests.ResponseCache;
+import be.raft.pelican.requests.RetryPolicy;
+import be.raft.pelican.requests.ShutdownResult;
 import be.raft.pelican.utils.config.EndpointConfig;
 import be.raft.pelican.utils.config.SessionConfig;
 import be.raft.pelican.utils.config.ThreadingConfig;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import okhttp3.OkHttpClient;
 
 public class P4JImpl implements P4J {
@@ -34,11 +54,23 @@ public class P4JImpl implements P4J {
 	private final Requester requester;
 
 	private final EndpointConfig endpointConfig;
+	private final List<EndpointConfig> endpoints;
 	private final ThreadingConfig threadingConfig;
 	private final SessionConfig sessionConfig;
 
+	private final Set<WebSocketManager> webSockets = ConcurrentHashMap.newKeySet();
+	private final CompletableFuture<ShutdownResult> termination = new CompletableFuture<>();
+	private ScheduledFuture<?> drainTask;
+	private long shutdownTime = 0;
+	private int closedWebSockets = 0;
+
 	public P4JImpl(EndpointConfig endpointConfig, ThreadingConfig threadingConfig, SessionConfig sessionConfig) {
-		this.endpointConfig = endpointConfig;
+		this(Collections.singletonList(endpointConfig), threadingConfig, sessionConfig);
+	}
+
+	public P4JImpl(List<EndpointConfig> endpoints, ThreadingConfig threadingConfig, SessionConfig sessionConfig) {
+		this.endpointConfig = endpoints.get(0);
+		this.endpoints = Collections.unmodifiableList(new ArrayList<>(endpoints));
 		this.threadingConfig = threadingConfig;
 		this.sessionConfig = sessionConfig;
 		this.requester = new Requester(this);
@@ -59,6 +91,11 @@ public class P4JImpl implements P4J {
 		return endpointConfig.getUrl();
 	}
 
+	@Override
+	public List<EndpointConfig> getEndpoints() {
+		return endpoints;
+	}
+
 	@Override
 	public OkHttpClient getHttpClient() {
 		return sessionConfig.getHttpClient();
@@ -89,6 +126,66 @@ public class P4JImpl implements P4J {
 		return sessionConfig.getWebSocketClient();
 	}
 
+	@Override
+	public int getMaxConcurrentRequests() {
+		return sessionConfig.getMaxConcurrentRequests();
+	}
+
+	@Override
+	public boolean isRateLimitPacing() {
+		return sessionConfig.isRateLimitPacing();
+	}
+
+	@Override
+	public ResponseCache getResponseCache() {
+		return sessionConfig.getResponseCache();
+	}
+
+	@Override
+	public RetryPolicy getRetryPolicy() {
+		return sessionConfig.getRetryPolicy();
+	}
+
+	@Override
+	public CircuitBreaker getCircuitBreaker() {
+		return sessionConfig.getCircuitBreaker();
+	}
+
+	@Override
+	public AdaptiveConcurrency getAdaptiveConcurrency() {
+		return sessionConfig.getAdaptiveConcurrency();
+	}
+
+	@Override
+	public HedgingPolicy getHedgingPolicy() {
+		return sessionConfig.getHedgingPolicy();
+	}
+
+	@Override
+	public QueuePolicy getQueuePolicy() {
+		return sessionConfig.getQueuePolicy();
+	}
+
+	@Override
+	public Map<String, Integer> getTenantWeights() {
+		return sessionConfig.getTenantWeights();
+	}
+
+	@Override
+	public JsonCodec getJsonCodec() {
+		return sessionConfig.getJsonCodec();
+	}
+
+	@Override
+	public MetricsListener getMetricsListener() {
+		return sessionConfig.getMetricsListener();
+	}
+
+	@Override
+	public List<RequestInterceptor> getInterceptors() {
+		return sessionConfig.getInterceptors();
+	}
+
 	@Override
 	public String getUserAgent() {
 		return sessionConfig.getUserAgent();
@@ -103,4 +200,68 @@ public class P4JImpl implements P4J {
 	public PteroClient asClient() {
 		return new PteroClientImpl(this);
 	}
+
+	public void registerWebSocket(WebSocketManager webSocket) {
+		webSockets.add(webSocket);
+	}
+
+	public void unregisterWebSocket(WebSocketManager webSocket) {
+		webSockets.remove(webSocket);
+	}
+
+	@Override
+	public synchronized CompletableFuture<ShutdownResult> shutdown() {
+		if (isShutdown()) return termination;
+		startShutdown();
+
+		// the rate limit pool is only closed once every request has completed
+		drainTask = getRateLimitPool()
+				.scheduleWithFixedDelay(
+						() -> {
+							if (requester.isIdle()) terminate(0, 0);
+						},
+						0,
+						50,
+						TimeUnit.MILLISECONDS);
+		return termination;
+	}
+
+	@Override
+	public synchronized ShutdownResult shutdownNow() {
+		if (termination.isDone()) return termination.join();
+		if (!isShutdown()) startShutdown();
+
+		int cancelled = requester.cancelQueued();
+		int aborted = requester.abortInFlight();
+		return terminate(cancelled, aborted);
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return requester.isShutdown();
+	}
+
+	private void startShutdown() {
+		shutdownTime = System.currentTimeMillis();
+		requester.shutdown();
+
+		for (WebSocketManager webSocket : webSockets) {
+			if (!webSocket.isConnected()) continue;
+			webSocket.shutdown();
+			closedWebSockets++;
+		}
+		webSockets.clear();
+	}
+
+	private synchronized ShutdownResult terminate(int cancelled, int aborted) {
+		if (termination.isDone()) return termination.join();
+
+		if (drainTask != null) drainTask.cancel(false);
+		threadingConfig.shutdown();
+		sessionConfig.shutdown();
+		ShutdownResult result =
+				new ShutdownResult(cancelled, aborted, closedWebSockets, System.currentTimeMillis() - shutdownTime);
+		termination.complete(result);
+		return result;
+	}
 }
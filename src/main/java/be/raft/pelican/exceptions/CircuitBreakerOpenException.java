@@ -0,0 +1,34 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.exceptions;
+
+public class CircuitBreakerOpenException extends PteroException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long retryAfter;
+
+	public CircuitBreakerOpenException(long retryAfter) {
+		super(String.format(
+				"The panel is considered unavailable and the request was not sent. Retry-After: %d", retryAfter));
+		this.retryAfter = retryAfter;
+	}
+
+	public long getRetryAfter() {
+		return retryAfter;
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.exceptions;
+
+public class RequestQueueFullException extends PteroException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final boolean dropped;
+
+	public RequestQueueFullException(int capacity, boolean dropped) {
+		super(String.format(
+				"The request queue is full and the request was %s. Capacity: %d",
+				dropped ? "dropped" : "rejected", capacity));
+		this.dropped = dropped;
+	}
+
+	/**
+	 * Whether the request was already queued and dropped to make space for a newer request.
+	 *
+	 * @return True, if the request was dropped, false if it was rejected
+	 */
+	public boolean isDropped() {
+		return dropped;
+	}
+}
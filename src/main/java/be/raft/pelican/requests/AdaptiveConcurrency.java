@@ -0,0 +1,137 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests;
+
+import be.raft.pelican.utils.Checks;
+
+/**
+ * Adjusts the amount of in-flight requests to the load of the panel, configured with
+ * {@link be.raft.pelican.PteroBuilder#setAdaptiveConcurrency(AdaptiveConcurrency)}.
+ *
+ * <p>Every API key starts at the {@link be.raft.pelican.PteroBuilder#setMaxConcurrentRequests(int) max concurrent requests}
+ * and uses an AIMD (additive increase, multiplicative decrease) algorithm:
+ * <ul>
+ *     <li>While the in-flight requests use the limit and the panel responds quickly, the limit grows by about one request
+ *     per round trip.</li>
+ *     <li>When the panel responds with a 5xx status code or a 429, a connection fails, or the latency exceeds
+ *     the {@link #setLatencyTolerance(double) tolerance} of the lowest recent latency of the same route, the limit
+ *     is multiplied by the {@link #setBackoffRatio(double) backoff ratio}. Requests that were sent before the last
+ *     decrease don't decrease the limit again.</li>
+ * </ul>
+ * The current limits are reported to {@link MetricsListener#onConcurrencyLimitUpdate(RateLimiter, int)}.
+ *
+ * <h2>Example</h2>
+ * <pre>{@code
+ * AdaptiveConcurrency concurrency = AdaptiveConcurrency.create()
+ *         .setLimits(2, 40)
+ *         .setBackoffRatio(0.8);
+ * }</pre>
+ */
+public class AdaptiveConcurrency {
+
+	private int minLimit = 1;
+	private int maxLimit = 50;
+	private double backoffRatio = 0.9;
+	private double latencyTolerance = 2.0;
+
+	/**
+	 * Creates a new AdaptiveConcurrency with the default settings.
+	 *
+	 * @return The new AdaptiveConcurrency
+	 */
+	public static AdaptiveConcurrency create() {
+		return new AdaptiveConcurrency();
+	}
+
+	/**
+	 * Sets the bounds of the concurrency limit of every API key.
+	 *
+	 * <p>Default: <b>1 min, 50 max</b>
+	 *
+	 * @param  minLimit
+	 *         The lowest limit, must be at least 1
+	 * @param  maxLimit
+	 *         The highest limit
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the min limit is lower than 1, or the max limit is lower than the min limit
+	 *
+	 * @return The AdaptiveConcurrency instance. Useful for chaining.
+	 */
+	public AdaptiveConcurrency setLimits(int minLimit, int maxLimit) {
+		Checks.check(minLimit > 0, "Min limit must be at least 1");
+		Checks.check(maxLimit >= minLimit, "Max limit must not be lower than the min limit");
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		return this;
+	}
+
+	/**
+	 * Sets the ratio the limit is multiplied with when the panel is overloaded.
+	 *
+	 * <p>Default: <b>0.9</b>
+	 *
+	 * @param  backoffRatio
+	 *         The ratio, between 0.5 and 1 (exclusive)
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the ratio is out of bounds
+	 *
+	 * @return The AdaptiveConcurrency instance. Useful for chaining.
+	 */
+	public AdaptiveConcurrency setBackoffRatio(double backoffRatio) {
+		Checks.check(backoffRatio >= 0.5 && backoffRatio < 1, "Backoff ratio must be between 0.5 and 1");
+		this.backoffRatio = backoffRatio;
+		return this;
+	}
+
+	/**
+	 * Sets how much slower than the lowest recent latency of its route a response may be before the panel is considered
+	 * overloaded. Every route has its own baseline, since a list with includes is always slower than a single resource.
+	 *
+	 * <p>Default: <b>2.0</b>, responses taking more than twice the lowest recent latency decrease the limit
+	 *
+	 * @param  latencyTolerance
+	 *         The tolerance, must be greater than 1
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the tolerance is not greater than 1
+	 *
+	 * @return The AdaptiveConcurrency instance. Useful for chaining.
+	 */
+	public AdaptiveConcurrency setLatencyTolerance(double latencyTolerance) {
+		Checks.check(latencyTolerance > 1, "Latency tolerance must be greater than 1");
+		this.latencyTolerance = latencyTolerance;
+		return this;
+	}
+
+	public int getMinLimit() {
+		return minLimit;
+	}
+
+	public int getMaxLimit() {
+		return maxLimit;
+	}
+
+	public double getBackoffRatio() {
+		return backoffRatio;
+	}
+
+	public double getLatencyTolerance() {
+		return latencyTolerance;
+	}
+}
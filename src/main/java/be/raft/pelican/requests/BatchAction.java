@@ -0,0 +1,127 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests;
+
+import be.raft.pelican.Priority;
+import be.raft.pelican.PteroAction;
+import java.util.function.Consumer;
+
+/**
+ * {@link PteroAction PteroAction} executing a collection of actions with a bounded parallelism.
+ * <br>Created with {@link PteroAction#batch(java.util.Collection)}.
+ *
+ * <p>At most {@link #parallelism(int) parallelism} actions are executed at the same time, the next action is only
+ * started once a previous one completed. The actions still go through the rate limiter, so a large batch doesn't
+ * flood the request queue and leaves room for other requests.
+ *
+ * <p>The batch itself never fails, the outcome of every action is collected in a {@link BatchResult BatchResult}.
+ *
+ * <h2>Example</h2>
+ * <pre>{@code
+ * List<PteroAction<Void>> actions = servers.stream()
+ *         .map(ApplicationServer::suspend)
+ *         .collect(Collectors.toList());
+ *
+ * PteroAction.batch(actions)
+ *         .parallelism(10)
+ *         .onItem(item -> { if (!item.isSuccess()) log.warn("Action {} failed", item.getIndex(), item.getError()); })
+ *         .executeAsync(result -> log.info("Suspended {}/{} servers", result.getSuccessCount(), result.size()));
+ * }</pre>
+ *
+ * @param <T>
+ *        The result type of the actions
+ */
+public interface BatchAction<T> extends PteroAction<BatchResult<T>> {
+
+	/**
+	 * Sets how many actions can be executed at the same time.
+	 *
+	 * <p>Default: <b>the maximum amount of concurrent requests of all API keys</b>
+	 *
+	 * @param  parallelism
+	 *         The parallelism, must be at least 1
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided parallelism is lower than 1
+	 *
+	 * @return The same BatchAction with the applied setting
+	 */
+	BatchAction<T> parallelism(int parallelism);
+
+	/**
+	 * Enables/Disables fail-fast mode.
+	 * <br>When enabled, no further actions are started after the first failure and the actions that are still running
+	 * are cancelled. Both are reported as {@link BatchResult.Item#isSkipped() skipped}.
+	 *
+	 * <p>Default: <b>false (continue on error)</b>
+	 *
+	 * @param  enable
+	 *         True - stop the batch on the first failure
+	 *
+	 * @return The same BatchAction with the applied setting
+	 */
+	BatchAction<T> failFast(boolean enable);
+
+	/**
+	 * Sets a listener that is called with the result of every action as soon as it completes,
+	 * in the order of completion.
+	 *
+	 * @param  listener
+	 *         The listener, or null to remove it
+	 *
+	 * @return The same BatchAction with the applied setting
+	 */
+	BatchAction<T> onItem(Consumer<? super BatchResult.Item<T>> listener);
+
+	/**
+	 * The maximum amount of actions executed at the same time.
+	 *
+	 * @return The parallelism
+	 */
+	int getParallelism();
+
+	/**
+	 * Whether the batch stops on the first failure.
+	 *
+	 * @return True, if fail-fast is enabled
+	 */
+	boolean isFailFast();
+
+	/**
+	 * Applies the deadline to every action of the batch.
+	 */
+	@Override
+	BatchAction<T> deadline(long timestamp);
+
+	/**
+	 * Applies the priority to every action of the batch.
+	 */
+	@Override
+	BatchAction<T> priority(Priority priority);
+
+	/**
+	 * Applies the tenant to every action of the batch.
+	 */
+	@Override
+	BatchAction<T> tenant(String tenant);
+
+	@Override
+	BatchAction<T> coalesce(boolean enable);
+
+	@Override
+	BatchAction<T> useResponseCache(boolean enable);
+}
@@ -0,0 +1,272 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests;
+
+import be.raft.pelican.PteroAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Outcome of a {@link BatchAction BatchAction}.
+ *
+ * @param <T>
+ *        The result type of the actions
+ */
+public final class BatchResult<T> {
+
+	private final List<Item<T>> items;
+	private final long startTime;
+	private final long endTime;
+
+	public BatchResult(List<Item<T>> items, long startTime, long endTime) {
+		this.items = Collections.unmodifiableList(new ArrayList<>(items));
+		this.startTime = startTime;
+		this.endTime = endTime;
+	}
+
+	/**
+	 * The results of every action, in the order of the actions in the batch.
+	 *
+	 * @return Immutable list of items
+	 */
+	public List<Item<T>> getItems() {
+		return items;
+	}
+
+	/**
+	 * The amount of actions in the batch.
+	 *
+	 * @return The size of the batch
+	 */
+	public int size() {
+		return items.size();
+	}
+
+	/**
+	 * The values of the successful actions, in the order of the actions in the batch.
+	 *
+	 * @return List of values
+	 */
+	public List<T> getValues() {
+		return items.stream().filter(Item::isSuccess).map(Item::getValue).collect(Collectors.toList());
+	}
+
+	/**
+	 * The failed actions, excluding the skipped ones.
+	 *
+	 * @return List of failed items
+	 */
+	public List<Item<T>> getFailures() {
+		return items.stream()
+				.filter(item -> !item.isSuccess() && !item.isSkipped())
+				.collect(Collectors.toList());
+	}
+
+	public int getSuccessCount() {
+		return (int) items.stream().filter(Item::isSuccess).count();
+	}
+
+	public int getFailureCount() {
+		return getFailures().size();
+	}
+
+	public int getSkippedCount() {
+		return (int) items.stream().filter(Item::isSkipped).count();
+	}
+
+	/**
+	 * Whether every action of the batch was successful.
+	 *
+	 * @return True, if no action failed or was skipped
+	 */
+	public boolean isSuccess() {
+		return getSuccessCount() == size();
+	}
+
+	/**
+	 * Millisecond timestamp at which the batch was started.
+	 *
+	 * @return The start time
+	 */
+	public long getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * The time the whole batch took in milliseconds.
+	 *
+	 * @return The duration of the batch
+	 */
+	public long getDuration() {
+		return endTime - startTime;
+	}
+
+	/**
+	 * The amount of completed actions per second.
+	 *
+	 * @return The throughput of the batch
+	 */
+	public double getThroughput() {
+		long duration = getDuration();
+		int completed = size() - getSkippedCount();
+		return duration == 0 ? completed : completed * 1000D / duration;
+	}
+
+	/**
+	 * The average time an action took in milliseconds, excluding skipped actions.
+	 *
+	 * @return The average duration
+	 */
+	public double getAverageDuration() {
+		return Arrays.stream(getDurations()).average().orElse(0);
+	}
+
+	/**
+	 * The longest time an action took in milliseconds.
+	 *
+	 * @return The maximum duration
+	 */
+	public long getMaxDuration() {
+		return Arrays.stream(getDurations()).max().orElse(0);
+	}
+
+	/**
+	 * The time in milliseconds that the provided percentage of actions completed within, excluding skipped actions.
+	 *
+	 * @param  percentile
+	 *         The percentile, between 0 and 100
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the percentile is not between 0 and 100
+	 *
+	 * @return The duration at the percentile
+	 */
+	public long getDurationPercentile(double percentile) {
+		if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("Percentile must be between 0 and 100");
+		long[] durations = getDurations();
+		if (durations.length == 0) return 0;
+
+		Arrays.sort(durations);
+		int index = (int) Math.ceil(percentile / 100 * durations.length) - 1;
+		return durations[Math.max(index, 0)];
+	}
+
+	private long[] getDurations() {
+		return items.stream()
+				.filter(item -> !item.isSkipped())
+				.mapToLong(Item::getDuration)
+				.toArray();
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"BatchResult{size=%d, success=%d, failed=%d, skipped=%d, duration=%dms}",
+				size(),
+				getSuccessCount(),
+				getFailureCount(),
+				getSkippedCount(),
+				getDuration());
+	}
+
+	/**
+	 * The outcome of a single action of a batch.
+	 *
+	 * @param <T>
+	 *        The result type of the action
+	 */
+	public static final class Item<T> {
+
+		private final int index;
+		private final PteroAction<? extends T> action;
+		private final T value;
+		private final Throwable error;
+		private final long duration;
+		private final boolean skipped;
+
+		public Item(
+				int index,
+				PteroAction<? extends T> action,
+				T value,
+				Throwable error,
+				long duration,
+				boolean skipped) {
+			this.index = index;
+			this.action = action;
+			this.value = value;
+			this.error = error;
+			this.duration = duration;
+			this.skipped = skipped;
+		}
+
+		/**
+		 * The position of the action in the batch.
+		 *
+		 * @return The index
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		public PteroAction<? extends T> getAction() {
+			return action;
+		}
+
+		/**
+		 * The value of the action, null if it failed.
+		 *
+		 * @return The value
+		 */
+		public T getValue() {
+			return value;
+		}
+
+		/**
+		 * The failure of the action, null if it was successful.
+		 *
+		 * @return The error
+		 */
+		public Throwable getError() {
+			return error;
+		}
+
+		/**
+		 * The time the action took in milliseconds, including the time it spent in the rate limit queue.
+		 *
+		 * @return The duration
+		 */
+		public long getDuration() {
+			return duration;
+		}
+
+		public boolean isSuccess() {
+			return error == null && !skipped;
+		}
+
+		/**
+		 * Whether the action was never started, because the batch stopped after a failure.
+		 *
+		 * @return True, if the action was skipped
+		 */
+		public boolean isSkipped() {
+			return skipped;
+		}
+	}
+}
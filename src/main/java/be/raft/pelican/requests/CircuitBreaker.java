@@ -0,0 +1,262 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests;
+
+import be.raft.pelican.utils.Checks;
+import be.raft.pelican.utils.P4JLogger;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+
+/**
+ * Circuit breaker protecting the panel, configured with {@link be.raft.pelican.PteroBuilder#setCircuitBreaker(CircuitBreaker)}.
+ *
+ * <p>The breaker opens after a configured amount of consecutive 5xx responses or connection failures.
+ * While it is open, requests fail immediately with a {@link be.raft.pelican.exceptions.CircuitBreakerOpenException CircuitBreakerOpenException}
+ * instead of being sent, including the requests that were already queued. Cached responses are still served.
+ *
+ * <p>Once the open duration has passed, the breaker becomes half-open and sends a lightweight probe request
+ * with every API key. Once every probe got a response below 500, the breaker closes again, otherwise it stays open
+ * for another open duration.
+ *
+ * <h2>Example</h2>
+ * <pre>{@code
+ * CircuitBreaker breaker = CircuitBreaker.create()
+ *         .setFailureThreshold(10)
+ *         .setOpenDuration(15, TimeUnit.SECONDS)
+ *         .addListener((previous, current) -> System.out.println("Panel circuit is now " + current));
+ * }</pre>
+ */
+public class CircuitBreaker {
+
+	private static final Logger LOGGER = P4JLogger.getLogger(CircuitBreaker.class);
+
+	private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+	private int failureThreshold = 5;
+	private long openDuration = 30_000;
+
+	private State state = State.CLOSED;
+	private int failures = 0;
+	private long openedAt = 0;
+
+	/**
+	 * Creates a new CircuitBreaker with the default settings.
+	 *
+	 * @return The new CircuitBreaker
+	 */
+	public static CircuitBreaker create() {
+		return new CircuitBreaker();
+	}
+
+	/**
+	 * Sets the amount of consecutive failures after which the breaker opens.
+	 *
+	 * <p>Default: <b>5</b>
+	 *
+	 * @param  failureThreshold
+	 *         The amount of consecutive failures, must be at least 1
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided amount is lower than 1
+	 *
+	 * @return The CircuitBreaker instance. Useful for chaining.
+	 */
+	public CircuitBreaker setFailureThreshold(int failureThreshold) {
+		Checks.check(failureThreshold > 0, "Failure threshold must be at least 1");
+		this.failureThreshold = failureThreshold;
+		return this;
+	}
+
+	/**
+	 * Sets for how long the breaker stays open before a probe request is sent.
+	 *
+	 * <p>Default: <b>30 seconds</b>
+	 *
+	 * @param  duration
+	 *         The open duration
+	 * @param  unit
+	 *         The time unit of the duration
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the duration is negative, or the time unit is null
+	 *
+	 * @return The CircuitBreaker instance. Useful for chaining.
+	 */
+	public CircuitBreaker setOpenDuration(long duration, TimeUnit unit) {
+		Checks.notNull(unit, "TimeUnit");
+		Checks.check(duration >= 0, "Open duration must not be negative");
+		this.openDuration = unit.toMillis(duration);
+		return this;
+	}
+
+	/**
+	 * Adds a listener that is notified of every state transition.
+	 * <br>Listeners are called on the thread that caused the transition and should not block.
+	 *
+	 * @param  listener
+	 *         The listener
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the listener is null
+	 *
+	 * @return The CircuitBreaker instance. Useful for chaining.
+	 */
+	public CircuitBreaker addListener(Listener listener) {
+		Checks.notNull(listener, "Listener");
+		listeners.add(listener);
+		return this;
+	}
+
+	/**
+	 * Removes a previously added listener.
+	 *
+	 * @param  listener
+	 *         The listener
+	 *
+	 * @return The CircuitBreaker instance. Useful for chaining.
+	 */
+	public CircuitBreaker removeListener(Listener listener) {
+		listeners.remove(listener);
+		return this;
+	}
+
+	public int getFailureThreshold() {
+		return failureThreshold;
+	}
+
+	public long getOpenDuration() {
+		return openDuration;
+	}
+
+	/**
+	 * The current state of the breaker.
+	 *
+	 * @return The {@link State State}
+	 */
+	public synchronized State getState() {
+		return state;
+	}
+
+	/**
+	 * The amount of milliseconds until the breaker sends its next probe request, or 0 if it is closed.
+	 *
+	 * @return The delay until the next probe
+	 */
+	public synchronized long getRetryAfter() {
+		if (state == State.CLOSED) return 0;
+		return Math.max(0, openedAt + openDuration - System.currentTimeMillis());
+	}
+
+	synchronized boolean isClosed() {
+		return state == State.CLOSED;
+	}
+
+	void onSuccess() {
+		synchronized (this) {
+			failures = 0;
+		}
+	}
+
+	/**
+	 * Records a failed request.
+	 *
+	 * @return True, if the breaker was opened by this failure
+	 */
+	boolean onFailure() {
+		synchronized (this) {
+			if (state != State.CLOSED || ++failures < failureThreshold) return false;
+		}
+		return transition(State.CLOSED, State.OPEN);
+	}
+
+	/**
+	 * Marks the breaker as half-open before sending a probe request.
+	 *
+	 * @return True, if the probe request should be sent
+	 */
+	boolean startProbe() {
+		return transition(State.OPEN, State.HALF_OPEN);
+	}
+
+	/**
+	 * Records the result of a probe request.
+	 *
+	 * @return True, if the breaker was opened again
+	 */
+	boolean onProbe(boolean healthy) {
+		if (healthy) {
+			transition(State.HALF_OPEN, State.CLOSED);
+			return false;
+		}
+		return transition(State.HALF_OPEN, State.OPEN);
+	}
+
+	private boolean transition(State expected, State next) {
+		synchronized (this) {
+			if (state != expected) return false;
+			state = next;
+			failures = 0;
+			if (next == State.OPEN) openedAt = System.currentTimeMillis();
+		}
+
+		LOGGER.debug("Circuit breaker state changed from {} to {}", expected, next);
+		for (Listener listener : listeners) {
+			try {
+				listener.onStateChange(expected, next);
+			} catch (Throwable t) {
+				LOGGER.error("Circuit breaker listener threw an exception", t);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * The states of a {@link CircuitBreaker CircuitBreaker}.
+	 */
+	public enum State {
+		/**
+		 * Requests are sent normally.
+		 */
+		CLOSED,
+		/**
+		 * Requests fail immediately without being sent.
+		 */
+		OPEN,
+		/**
+		 * A probe request is checking if the panel recovered, other requests still fail immediately.
+		 */
+		HALF_OPEN
+	}
+
+	/**
+	 * Listener notified of the state transitions of a {@link CircuitBreaker CircuitBreaker}.
+	 */
+	@FunctionalInterface
+	public interface Listener {
+
+		/**
+		 * Called when the breaker changes its state.
+		 *
+		 * @param previous
+		 *        The previous state
+		 * @param current
+		 *        The new state
+		 */
+		void onStateChange(State previous, State current);
+	}
+}
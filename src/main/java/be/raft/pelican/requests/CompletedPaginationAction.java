@@ -20,8 +20,10 @@ import be.raft.pelican.PteroAction;
 import be.raft.pelican.entities.P4J;
 import be.raft.pelican.exceptions.RateLimitedException;
 import be.raft.pelican.requests.action.impl.PaginationActionImpl;
+import be.raft.pelican.requests.action.impl.PaginationPublisher;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 public class CompletedPaginationAction<T> extends PaginationActionImpl<T> {
@@ -56,6 +58,11 @@ public class CompletedPaginationAction<T> extends PaginationActionImpl<T> {
 		return value;
 	}
 
+	@Override
+	public CompletableFuture<List<T>> submit(boolean shouldQueue) {
+		return error == null ? CompletableFuture.completedFuture(value) : CompletableFuture.failedFuture(error);
+	}
+
 	@Override
 	public void executeAsync(Consumer<? super List<T>> success, Consumer<? super Throwable> failure) {
 		if (error == null) {
@@ -67,6 +74,13 @@ public class CompletedPaginationAction<T> extends PaginationActionImpl<T> {
 		}
 	}
 
+	@Override
+	protected CompletableFuture<PaginationPublisher.Page<T>> retrievePage(int page) {
+		if (error != null) return CompletableFuture.failedFuture(error);
+		return CompletableFuture.completedFuture(
+				new PaginationPublisher.Page<>(page == 1 ? value : Collections.emptyList(), 1));
+	}
+
 	@Override
 	public PaginationIterator<T> iterator() {
 		return new PaginationIterator<>(value, Collections::emptyList);
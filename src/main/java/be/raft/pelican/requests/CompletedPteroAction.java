@@ -16,9 +16,11 @@
 
 package be.raft.pelican.requests;
 
+import be.raft.pelican.Priority;
 import be.raft.pelican.PteroAction;
 import be.raft.pelican.entities.P4J;
 import be.raft.pelican.exceptions.RateLimitedException;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 public class CompletedPteroAction<T> implements PteroAction<T> {
@@ -56,6 +58,11 @@ public class CompletedPteroAction<T> implements PteroAction<T> {
 		return value;
 	}
 
+	@Override
+	public CompletableFuture<T> submit(boolean shouldQueue) {
+		return error == null ? CompletableFuture.completedFuture(value) : CompletableFuture.failedFuture(error);
+	}
+
 	@Override
 	public void executeAsync(Consumer<? super T> success, Consumer<? super Throwable> failure) {
 		if (error == null) {
@@ -71,4 +78,24 @@ public class CompletedPteroAction<T> implements PteroAction<T> {
 	public PteroAction<T> deadline(long timestamp) {
 		return this;
 	}
+
+	@Override
+	public PteroAction<T> priority(Priority priority) {
+		return this;
+	}
+
+	@Override
+	public PteroAction<T> tenant(String tenant) {
+		return this;
+	}
+
+	@Override
+	public PteroAction<T> coalesce(boolean enable) {
+		return this;
+	}
+
+	@Override
+	public PteroAction<T> useResponseCache(boolean enable) {
+		return this;
+	}
 }
@@ -0,0 +1,103 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Concurrency limit of a single API key, fixed or adapted with {@link AdaptiveConcurrency}.
+ */
+final class ConcurrencyLimit {
+
+	// the lowest latency is measured again after this many samples, so the baseline follows lasting changes
+	private static final int BASELINE_SAMPLES = 500;
+
+	private final AdaptiveConcurrency policy;
+	// a list with includes is always slower than a single resource, so every route is compared with itself
+	private final Map<Route, Baseline> baselines = new HashMap<>();
+	private double limit;
+
+	private long lastDecrease;
+	private boolean decreased = false;
+
+	ConcurrencyLimit(AdaptiveConcurrency policy, int initialLimit) {
+		this.policy = policy;
+		this.limit = policy == null
+				? initialLimit
+				: Math.max(policy.getMinLimit(), Math.min(policy.getMaxLimit(), initialLimit));
+	}
+
+	int get() {
+		return (int) limit;
+	}
+
+	/**
+	 * Updates the limit with the outcome of a request.
+	 *
+	 * @param  route
+	 *         The route of the request
+	 * @param  latency
+	 *         The time between sending the request and its outcome, in nanoseconds
+	 * @param  inFlight
+	 *         The amount of in-flight requests, including this one
+	 * @param  overloaded
+	 *         Whether the panel responded with a 5xx or a 429, or the connection failed
+	 *
+	 * @return True, if the limit changed
+	 */
+	boolean update(Route route, long latency, int inFlight, boolean overloaded) {
+		if (policy == null) return false;
+
+		int previous = get();
+		long now = System.nanoTime();
+		Baseline baseline = baselines.computeIfAbsent(route, r -> new Baseline());
+		if (!overloaded) baseline.update(latency);
+
+		if (overloaded || latency > baseline.lowest * policy.getLatencyTolerance()) {
+			// the requests sent before the last decrease were sent with the previous limit
+			if (decreased && now - latency - lastDecrease < 0) return false;
+			limit = Math.max(policy.getMinLimit(), limit * policy.getBackoffRatio());
+			lastDecrease = now;
+			decreased = true;
+		} else if (inFlight * 2 >= limit) {
+			// only grow while the limit is used, about one request per round trip
+			limit = Math.min(policy.getMaxLimit(), limit + 1 / limit);
+		}
+		return get() != previous;
+	}
+
+	/**
+	 * The lowest recent latency of a route.
+	 */
+	private static final class Baseline {
+
+		private long lowest = Long.MAX_VALUE;
+		private long windowMin = Long.MAX_VALUE;
+		private int windowSamples = 0;
+
+		private void update(long latency) {
+			windowMin = Math.min(windowMin, latency);
+			lowest = Math.min(lowest, latency);
+			if (++windowSamples < BASELINE_SAMPLES) return;
+
+			lowest = windowMin;
+			windowMin = Long.MAX_VALUE;
+			windowSamples = 0;
+		}
+	}
+}
@@ -16,10 +16,16 @@
 
 package be.raft.pelican.requests;
 
+import be.raft.pelican.Priority;
 import be.raft.pelican.PteroAction;
 import be.raft.pelican.entities.P4J;
 import be.raft.pelican.exceptions.RateLimitedException;
+import be.raft.pelican.utils.ExceptionUtils;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -27,6 +33,7 @@ public class DeferredPteroAction<T> implements PteroAction<T> {
 
 	private final P4J api;
 	private final Supplier<? extends T> value;
+	private long deadline = 0;
 
 	public DeferredPteroAction(P4J api, Supplier<? extends T> value) {
 		this.api = api;
@@ -40,17 +47,72 @@ public class DeferredPteroAction<T> implements PteroAction<T> {
 
 	@Override
 	public T execute(boolean shouldQueue) throws RateLimitedException {
+		checkDeadline();
 		return value.get();
 	}
 
+	@Override
+	public CompletableFuture<T> submit(boolean shouldQueue) {
+		CompletableFuture<T> future = CompletableFuture.supplyAsync(
+				() -> {
+					checkDeadline();
+					return value.get();
+				},
+				api.getSupplierPool());
+		if (deadline <= 0) return future;
+
+		// the supplier may block, the future fails at the deadline even though it can't be interrupted
+		long remaining = Math.max(0, deadline - System.currentTimeMillis());
+		ScheduledFuture<?> timer = api.getRateLimitPool()
+				.schedule(
+						() -> future.completeExceptionally(new TimeoutException("Action has timed out")),
+						remaining,
+						TimeUnit.MILLISECONDS);
+		future.whenComplete((result, error) -> timer.cancel(false));
+		return future;
+	}
+
 	@Override
 	public void executeAsync(Consumer<? super T> success, Consumer<? super Throwable> failure) {
-		CompletableFuture.supplyAsync(value, api.getSupplierPool())
-				.thenAcceptAsync(success == null ? PteroAction.getDefaultSuccess() : success);
+		submit(true).whenComplete((result, error) -> {
+			if (error == null) {
+				if (success == null) PteroAction.getDefaultSuccess().accept(result);
+				else success.accept(result);
+			} else {
+				if (failure == null) PteroAction.getDefaultFailure().accept(ExceptionUtils.unwrap(error));
+				else failure.accept(ExceptionUtils.unwrap(error));
+			}
+		});
+	}
+
+	private void checkDeadline() {
+		if (deadline > 0 && deadline < System.currentTimeMillis())
+			throw new CompletionException(new TimeoutException("Action has timed out"));
 	}
 
 	@Override
 	public PteroAction<T> deadline(long timestamp) {
+		this.deadline = timestamp;
+		return this;
+	}
+
+	@Override
+	public PteroAction<T> priority(Priority priority) {
+		return this;
+	}
+
+	@Override
+	public PteroAction<T> tenant(String tenant) {
+		return this;
+	}
+
+	@Override
+	public PteroAction<T> coalesce(boolean enable) {
+		return this;
+	}
+
+	@Override
+	public PteroAction<T> useResponseCache(boolean enable) {
 		return this;
 	}
 }
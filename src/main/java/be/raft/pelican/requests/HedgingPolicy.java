@@ -0,0 +1,191 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests;
+
+import be.raft.pelican.utils.Checks;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Describes how slow GET requests are hedged, configured with {@link be.raft.pelican.PteroBuilder#setHedgingPolicy(HedgingPolicy)}.
+ *
+ * <p>When a GET request didn't receive a response within a {@link #setPercentile(double) percentile} of the latencies
+ * observed on its route, a single duplicate is sent. The first response is used and the other call is cancelled.
+ * This cuts the tail latency caused by occasional slow responses of the panel, at the cost of a few more requests.
+ *
+ * <p>Every duplicate consumes the rate limit budget of the API key, and no duplicate is sent while less than the
+ * {@link #setMinBudget(double) min budget} remains. Duplicates are not counted by the concurrency limit.
+ *
+ * <h2>Example</h2>
+ * <pre>{@code
+ * HedgingPolicy policy = HedgingPolicy.create()
+ *         .setPercentile(90)
+ *         .setRoutes(Route.Servers.GET_SERVER, Route.Client.GET_UTILIZATION);
+ * }</pre>
+ */
+public class HedgingPolicy {
+
+	private double percentile = 95;
+	private long minDelay = 50;
+	private int minSamples = 20;
+	private double minBudget = 0.25;
+	private Set<Route> routes = Collections.emptySet();
+
+	/**
+	 * Creates a new HedgingPolicy with the default settings.
+	 *
+	 * @return The new HedgingPolicy
+	 */
+	public static HedgingPolicy create() {
+		return new HedgingPolicy();
+	}
+
+	/**
+	 * Sets the percentile of the latencies of a route after which a duplicate is sent.
+	 *
+	 * <p>Default: <b>95</b>, about 5% of the requests are hedged
+	 *
+	 * @param  percentile
+	 *         The percentile, between 0 (exclusive) and 100
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the percentile is out of bounds
+	 *
+	 * @return The HedgingPolicy instance. Useful for chaining.
+	 */
+	public HedgingPolicy setPercentile(double percentile) {
+		Checks.check(percentile > 0 && percentile <= 100, "Percentile must be between 0 and 100");
+		this.percentile = percentile;
+		return this;
+	}
+
+	/**
+	 * Sets the minimum delay before a duplicate is sent, which applies when the route is usually very fast.
+	 *
+	 * <p>Default: <b>50ms</b>
+	 *
+	 * @param  minDelay
+	 *         The minimum delay
+	 * @param  unit
+	 *         The time unit of the delay
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the delay is negative or the time unit is null
+	 *
+	 * @return The HedgingPolicy instance. Useful for chaining.
+	 */
+	public HedgingPolicy setMinDelay(long minDelay, TimeUnit unit) {
+		Checks.notNull(unit, "TimeUnit");
+		Checks.check(minDelay >= 0, "Min delay must not be negative");
+		this.minDelay = unit.toMillis(minDelay);
+		return this;
+	}
+
+	/**
+	 * Sets the amount of responses a route needs before its requests are hedged, so the percentile is meaningful.
+	 *
+	 * <p>Default: <b>20</b>
+	 *
+	 * @param  minSamples
+	 *         The amount of responses, must be at least 1
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the amount is lower than 1
+	 *
+	 * @return The HedgingPolicy instance. Useful for chaining.
+	 */
+	public HedgingPolicy setMinSamples(int minSamples) {
+		Checks.check(minSamples > 0, "Min samples must be at least 1");
+		this.minSamples = minSamples;
+		return this;
+	}
+
+	/**
+	 * Sets the fraction of the rate limit budget that must remain for a duplicate to be sent.
+	 *
+	 * <p>Default: <b>0.25</b>, no duplicate is sent once 75% of the budget is used
+	 *
+	 * @param  minBudget
+	 *         The fraction of the budget, between 0 and 1
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the fraction is out of bounds
+	 *
+	 * @return The HedgingPolicy instance. Useful for chaining.
+	 */
+	public HedgingPolicy setMinBudget(double minBudget) {
+		Checks.check(minBudget >= 0 && minBudget <= 1, "Min budget must be between 0 and 1");
+		this.minBudget = minBudget;
+		return this;
+	}
+
+	/**
+	 * Restricts hedging to the provided GET routes, by default every GET route is hedged.
+	 *
+	 * @param  routes
+	 *         The routes to hedge, none to hedge every GET route
+	 *
+	 * @throws IllegalArgumentException
+	 *         If a route is null or doesn't use the GET method
+	 *
+	 * @return The HedgingPolicy instance. Useful for chaining.
+	 */
+	public HedgingPolicy setRoutes(Route... routes) {
+		Checks.notNull(routes, "Routes");
+		for (Route route : routes) {
+			Checks.notNull(route, "Route");
+			Checks.check(route.getMethod() == Method.GET, "Only GET routes can be hedged");
+		}
+		this.routes = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(routes)));
+		return this;
+	}
+
+	public double getPercentile() {
+		return percentile;
+	}
+
+	public long getMinDelay() {
+		return minDelay;
+	}
+
+	public int getMinSamples() {
+		return minSamples;
+	}
+
+	public double getMinBudget() {
+		return minBudget;
+	}
+
+	public Set<Route> getRoutes() {
+		return routes;
+	}
+
+	/**
+	 * Whether requests to the route are hedged.
+	 *
+	 * @param  route
+	 *         The route
+	 *
+	 * @return True, if the route uses the GET method and is allowed by {@link #setRoutes(Route...)}
+	 */
+	public boolean isHedged(Route route) {
+		return route.getMethod() == Method.GET && (routes.isEmpty() || routes.contains(route));
+	}
+}
@@ -0,0 +1,323 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link MetricsListener MetricsListener} keeping the metrics in memory, without any dependency on a metrics library.
+ *
+ * <p>Latencies are recorded per {@link Route Route} in {@link LatencyHistogram LatencyHistograms},
+ * the gauges of the rate limiters keep the last reported value.
+ *
+ * <h2>Example</h2>
+ * <pre>{@code
+ * InMemoryMetrics metrics = new InMemoryMetrics();
+ * PteroApplication api = PteroBuilder.create(url, token)
+ *         .setMetricsListener(metrics)
+ *         .buildApplication();
+ *
+ * // later, for example from a scheduled task
+ * logger.info(metrics.toString());
+ * }</pre>
+ */
+public class InMemoryMetrics implements MetricsListener {
+
+	private final Map<Route, RouteMetrics> routes = new ConcurrentHashMap<>();
+	private final Map<RateLimiter, QueueState> queues = new ConcurrentHashMap<>();
+	private final Map<RateLimiter, Integer> concurrencyLimits = new ConcurrentHashMap<>();
+	private final Map<RateLimiter, RateLimitBudget> budgets = new ConcurrentHashMap<>();
+	private final LatencyHistogram callbackLag = new LatencyHistogram();
+
+	@Override
+	public void onQueueUpdate(RateLimiter rateLimiter, int queued, int inFlight) {
+		queues.put(rateLimiter, new QueueState(queued, inFlight));
+	}
+
+	@Override
+	public void onConcurrencyLimitUpdate(RateLimiter rateLimiter, int limit) {
+		concurrencyLimits.put(rateLimiter, limit);
+	}
+
+	@Override
+	public void onRequestSent(Route.CompiledRoute route, long queueTime) {
+		getRoute(route).queue.record(queueTime, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void onResponse(Route.CompiledRoute route, int code, long networkTime) {
+		RouteMetrics metrics = getRoute(route);
+		metrics.network.record(networkTime, TimeUnit.NANOSECONDS);
+		metrics.responses.incrementAndGet();
+		if (code >= 400 && code != 429) metrics.errors.incrementAndGet();
+	}
+
+	@Override
+	public void onRequestFailed(Route.CompiledRoute route, Throwable error, long networkTime) {
+		RouteMetrics metrics = getRoute(route);
+		metrics.network.record(networkTime, TimeUnit.NANOSECONDS);
+		metrics.errors.incrementAndGet();
+	}
+
+	@Override
+	public void onResponseHandled(Route.CompiledRoute route, long decodeTime) {
+		getRoute(route).decode.record(decodeTime, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void onRateLimited(Route.CompiledRoute route, long retryAfter) {
+		getRoute(route).rateLimited.incrementAndGet();
+	}
+
+	@Override
+	public void onRetry(Route.CompiledRoute route, int attempt, long delay) {
+		getRoute(route).retries.incrementAndGet();
+	}
+
+	@Override
+	public void onRequestShed(Route.CompiledRoute route, Throwable error) {
+		getRoute(route).shed.incrementAndGet();
+	}
+
+	@Override
+	public void onRequestHedged(Route.CompiledRoute route, long delay) {
+		getRoute(route).hedges.incrementAndGet();
+	}
+
+	@Override
+	public void onRateLimitUpdate(RateLimiter rateLimiter, RateLimitBudget budget) {
+		budgets.put(rateLimiter, budget);
+	}
+
+	@Override
+	public void onCallbackLag(long lag) {
+		callbackLag.record(lag, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * The metrics of every route that was requested.
+	 *
+	 * @return Immutable view of the metrics by route
+	 */
+	public Map<Route, RouteMetrics> getRoutes() {
+		return Collections.unmodifiableMap(routes);
+	}
+
+	/**
+	 * The metrics of a single route.
+	 *
+	 * @param  route
+	 *         The route
+	 *
+	 * @return The metrics, or null if the route was never requested
+	 */
+	public RouteMetrics getRoute(Route route) {
+		return routes.get(route);
+	}
+
+	/**
+	 * The amount of queued requests over all API keys.
+	 *
+	 * @return The queue depth
+	 */
+	public int getQueueDepth() {
+		return queues.values().stream().mapToInt(state -> state.queued).sum();
+	}
+
+	/**
+	 * The amount of in-flight requests over all API keys.
+	 *
+	 * @return The in-flight requests
+	 */
+	public int getInFlight() {
+		return queues.values().stream().mapToInt(state -> state.inFlight).sum();
+	}
+
+	/**
+	 * The concurrency limit over all API keys.
+	 *
+	 * @return The maximum amount of in-flight requests
+	 */
+	public int getConcurrencyLimit() {
+		return concurrencyLimits.values().stream().mapToInt(Integer::intValue).sum();
+	}
+
+	/**
+	 * The last reported concurrency limit of every API key.
+	 *
+	 * @return Immutable view of the concurrency limits by rate limiter
+	 */
+	public Map<RateLimiter, Integer> getConcurrencyLimits() {
+		return Collections.unmodifiableMap(concurrencyLimits);
+	}
+
+	/**
+	 * The last reported rate limit budget of every API key.
+	 *
+	 * @return Immutable view of the budgets by rate limiter
+	 */
+	public Map<RateLimiter, RateLimitBudget> getBudgets() {
+		return Collections.unmodifiableMap(budgets);
+	}
+
+	/**
+	 * The time callbacks waited for a thread of the callback pool.
+	 *
+	 * @return The callback lag histogram
+	 */
+	public LatencyHistogram getCallbackLag() {
+		return callbackLag;
+	}
+
+	/**
+	 * Removes every recorded metric.
+	 * <br>The budgets and concurrency limits are only known again once the rate limiters report them.
+	 */
+	public void reset() {
+		routes.clear();
+		queues.clear();
+		budgets.clear();
+		concurrencyLimits.clear();
+		callbackLag.reset();
+	}
+
+	private RouteMetrics getRoute(Route.CompiledRoute route) {
+		return routes.computeIfAbsent(route.getBaseRoute(), k -> new RouteMetrics());
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("InMemoryMetrics{queued=")
+				.append(getQueueDepth())
+				.append(", inFlight=")
+				.append(getInFlight())
+				.append(", concurrencyLimit=")
+				.append(getConcurrencyLimit())
+				.append(", callbackLag=[")
+				.append(callbackLag)
+				.append("]}");
+		routes.forEach((route, metrics) -> builder.append("\n\t")
+				.append(route.getMethod())
+				.append(' ')
+				.append(route.getRoute())
+				.append(": ")
+				.append(metrics));
+		return builder.toString();
+	}
+
+	private static final class QueueState {
+
+		private final int queued;
+		private final int inFlight;
+
+		private QueueState(int queued, int inFlight) {
+			this.queued = queued;
+			this.inFlight = inFlight;
+		}
+	}
+
+	/**
+	 * The metrics of a single {@link Route Route}.
+	 */
+	public static final class RouteMetrics {
+
+		private final LatencyHistogram queue = new LatencyHistogram();
+		private final LatencyHistogram network = new LatencyHistogram();
+		private final LatencyHistogram decode = new LatencyHistogram();
+		private final AtomicLong responses = new AtomicLong();
+		private final AtomicLong errors = new AtomicLong();
+		private final AtomicLong rateLimited = new AtomicLong();
+		private final AtomicLong retries = new AtomicLong();
+		private final AtomicLong hedges = new AtomicLong();
+		private final AtomicLong shed = new AtomicLong();
+
+		/**
+		 * The time requests waited in the rate limit queue.
+		 *
+		 * @return The queue latency histogram
+		 */
+		public LatencyHistogram getQueueLatency() {
+			return queue;
+		}
+
+		/**
+		 * The time between sending requests and receiving the response headers.
+		 *
+		 * @return The network latency histogram
+		 */
+		public LatencyHistogram getNetworkLatency() {
+			return network;
+		}
+
+		/**
+		 * The time spent reading and decoding successful responses.
+		 *
+		 * @return The decode latency histogram
+		 */
+		public LatencyHistogram getDecodeLatency() {
+			return decode;
+		}
+
+		public long getResponseCount() {
+			return responses.get();
+		}
+
+		/**
+		 * The amount of failed requests, including error responses but excluding rate limited requests.
+		 *
+		 * @return The error count
+		 */
+		public long getErrorCount() {
+			return errors.get();
+		}
+
+		public long getRateLimitedCount() {
+			return rateLimited.get();
+		}
+
+		public long getRetryCount() {
+			return retries.get();
+		}
+
+		public long getHedgeCount() {
+			return hedges.get();
+		}
+
+		public long getShedCount() {
+			return shed.get();
+		}
+
+		@Override
+		public String toString() {
+			return String.format(
+					"responses=%d errors=%d 429s=%d retries=%d hedges=%d shed=%d queue=[%s] network=[%s] decode=[%s]",
+					getResponseCount(),
+					getErrorCount(),
+					getRateLimitedCount(),
+					getRetryCount(),
+					getHedgeCount(),
+					getShedCount(),
+					queue,
+					network,
+					decode);
+		}
+	}
+}
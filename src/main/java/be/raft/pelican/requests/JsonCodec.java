@@ -0,0 +1,102 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests;
+
+import java.io.Reader;
+import java.io.StringReader;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Decodes and encodes the JSON exchanged with the panel, configured with
+ * {@link be.raft.pelican.PteroBuilder#setJsonCodec(JsonCodec)}.
+ *
+ * <p>The codec is used to decode response bodies and websocket frames, and to encode request bodies and websocket frames.
+ * Entities are still backed by {@link JSONObject JSONObjects}, so a codec built on a faster parser has to produce
+ * them from its own representation.
+ *
+ * <p>Implementations must be thread-safe.
+ *
+ * @see OrgJsonCodec
+ */
+public interface JsonCodec {
+
+	/**
+	 * The default codec, backed by org.json.
+	 *
+	 * @return The default codec
+	 */
+	static JsonCodec getDefault() {
+		return OrgJsonCodec.INSTANCE;
+	}
+
+	/**
+	 * Decodes a JSON object from the provided reader.
+	 * <br>The reader is already buffered and is closed by P4J.
+	 *
+	 * @param  reader
+	 *         The reader of the JSON
+	 *
+	 * @return The decoded object
+	 */
+	JSONObject decodeObject(Reader reader);
+
+	/**
+	 * Decodes a JSON array from the provided reader.
+	 * <br>The reader is already buffered and is closed by P4J.
+	 *
+	 * @param  reader
+	 *         The reader of the JSON
+	 *
+	 * @return The decoded array
+	 */
+	JSONArray decodeArray(Reader reader);
+
+	/**
+	 * Encodes a {@link JSONObject JSONObject} or {@link JSONArray JSONArray}.
+	 *
+	 * @param  json
+	 *         The JSON value
+	 *
+	 * @return The encoded JSON
+	 */
+	String encode(Object json);
+
+	/**
+	 * Decodes a JSON object from the provided string.
+	 *
+	 * @param  json
+	 *         The JSON
+	 *
+	 * @return The decoded object
+	 */
+	default JSONObject decodeObject(String json) {
+		return decodeObject(new StringReader(json));
+	}
+
+	/**
+	 * Decodes a JSON array from the provided string.
+	 *
+	 * @param  json
+	 *         The JSON
+	 *
+	 * @return The decoded array
+	 */
+	default JSONArray decodeArray(String json) {
+		return decodeArray(new StringReader(json));
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests;
+
+import java.io.IOException;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * Request body holding a JSON value, which is only encoded by the {@link JsonCodec} of the
+ * {@link Requester} when the request is built.
+ */
+public final class JsonRequestBody extends RequestBody {
+
+	private final Object json;
+
+	public JsonRequestBody(Object json) {
+		this.json = json;
+	}
+
+	public Object getJson() {
+		return json;
+	}
+
+	/**
+	 * Encodes the JSON value with the provided codec.
+	 *
+	 * @param  codec
+	 *         The codec
+	 *
+	 * @return The encoded request body
+	 */
+	public RequestBody encode(JsonCodec codec) {
+		return RequestBody.create(codec.encode(json), Requester.MEDIA_TYPE_JSON);
+	}
+
+	@Override
+	public MediaType contentType() {
+		return Requester.MEDIA_TYPE_JSON;
+	}
+
+	@Override
+	public void writeTo(BufferedSink sink) throws IOException {
+		// only used if the body is sent without going through the requester
+		sink.writeUtf8(JsonCodec.getDefault().encode(json));
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with logarithmic buckets, similar to an HDR histogram.
+ *
+ * <p>Values are recorded in microseconds. Values up to 63 are recorded exactly, larger values are grouped in
+ * 32 buckets per power of two, which keeps the error of a percentile below ~3% over the whole range.
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int EXACT = SUB_BUCKETS * 2;
+	private static final int BUCKETS = EXACT + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records a duration.
+	 *
+	 * @param duration
+	 *        The duration
+	 * @param unit
+	 *        The time unit of the duration
+	 */
+	public void record(long duration, TimeUnit unit) {
+		long value = Math.max(0, unit.toMicros(duration));
+		counts.incrementAndGet(indexOf(value));
+		count.incrementAndGet();
+		sum.addAndGet(value);
+		max.accumulateAndGet(value, Math::max);
+	}
+
+	/**
+	 * The amount of recorded values.
+	 *
+	 * @return The count
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * The mean of the recorded values in microseconds.
+	 *
+	 * @return The mean
+	 */
+	public double getMean() {
+		long count = getCount();
+		return count == 0 ? 0 : (double) sum.get() / count;
+	}
+
+	/**
+	 * The highest recorded value in microseconds.
+	 *
+	 * @return The maximum
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * The value in microseconds below which the provided percentage of values fall.
+	 *
+	 * @param  percentile
+	 *         The percentile, between 0 and 100
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the percentile is not between 0 and 100
+	 *
+	 * @return The value at the percentile, or 0 if nothing was recorded
+	 */
+	public long getPercentile(double percentile) {
+		if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("Percentile must be between 0 and 100");
+		long total = getCount();
+		if (total == 0) return 0;
+
+		long target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= target) return Math.min(highestValueOf(i), getMax());
+		}
+		return getMax();
+	}
+
+	/**
+	 * Removes every recorded value.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+		count.set(0);
+		sum.set(0);
+		max.set(0);
+	}
+
+	private static int indexOf(long value) {
+		if (value < EXACT) return (int) value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return EXACT + (shift - 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+	}
+
+	private static long highestValueOf(int index) {
+		if (index < EXACT) return index;
+		int shift = (index - EXACT) / SUB_BUCKETS + 1;
+		long subBucket = (index - EXACT) % SUB_BUCKETS + SUB_BUCKETS;
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"count=%d mean=%.0fus p50=%dus p99=%dus max=%dus",
+				getCount(),
+				getMean(),
+				getPercentile(50),
+				getPercentile(99),
+				getMax());
+	}
+}
@@ -0,0 +1,193 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests;
+
+import be.raft.pelican.utils.Checks;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Default {@link ResponseCache ResponseCache} implementation, bounded by size with least-recently-used eviction.
+ *
+ * <p>Caching is opt-in: only the GET routes configured with {@link #setTtl(Route, long, TimeUnit)} are cached.
+ * Routes that return single-use URLs or tokens, such as file downloads, can't be cached.
+ *
+ * <h2>Example</h2>
+ * <pre>{@code
+ * LruResponseCache cache = new LruResponseCache(1000)
+ *         .setTtl(Route.Nodes.GET_NODE, 5, TimeUnit.MINUTES)
+ *         .setTtl(Route.Nodes.LIST_NODES, 30, TimeUnit.SECONDS)
+ *         .setStaleWhileRevalidate(10, TimeUnit.SECONDS);
+ *
+ * PteroApplication api = PteroBuilder.create(url, token)
+ *         .setResponseCache(cache)
+ *         .buildApplication();
+ * }</pre>
+ */
+public class LruResponseCache implements ResponseCache {
+
+	private final int maxSize;
+	private final Map<Route, Long> ttls = new HashMap<>();
+	private final LinkedHashMap<String, Entry> entries;
+	private long staleWhileRevalidate = 0;
+	private long lastInvalidation = 0;
+
+	/**
+	 * Creates a new cache.
+	 *
+	 * @param  maxSize
+	 *         The maximum amount of cached responses
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the size is lower than 1
+	 */
+	public LruResponseCache(int maxSize) {
+		Checks.check(maxSize > 0, "Max size must be at least 1");
+		this.maxSize = maxSize;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > LruResponseCache.this.maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Enables caching of the responses of a route, for the provided time-to-live.
+	 *
+	 * @param  route
+	 *         The GET route
+	 * @param  ttl
+	 *         The time-to-live, 0 to disable caching for this route
+	 * @param  unit
+	 *         The time unit of the time-to-live
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the route or time unit is null, or the route is not a GET route or returns single-use URLs or tokens
+	 *
+	 * @return The LruResponseCache instance. Useful for chaining.
+	 *
+	 * @see    Route#isShareable()
+	 */
+	public synchronized LruResponseCache setTtl(Route route, long ttl, TimeUnit unit) {
+		Checks.notNull(route, "Route");
+		Checks.notNull(unit, "TimeUnit");
+		Checks.check(route.getMethod() == Method.GET, "Only GET routes can be cached");
+		Checks.check(route.isShareable(), "Routes returning single-use URLs or tokens can't be cached");
+		ttls.put(route, unit.toMillis(ttl));
+		return this;
+	}
+
+	/**
+	 * Sets for how long an expired response can still be served while it is refreshed in the background.
+	 *
+	 * <p>Default: <b>0 (disabled)</b>
+	 *
+	 * @param  duration
+	 *         The stale-while-revalidate window
+	 * @param  unit
+	 *         The time unit of the window
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the time unit is null
+	 *
+	 * @return The LruResponseCache instance. Useful for chaining.
+	 */
+	public synchronized LruResponseCache setStaleWhileRevalidate(long duration, TimeUnit unit) {
+		Checks.notNull(unit, "TimeUnit");
+		this.staleWhileRevalidate = unit.toMillis(duration);
+		return this;
+	}
+
+	/**
+	 * The amount of responses that are currently cached.
+	 *
+	 * @return The size of the cache
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	@Override
+	public synchronized boolean isCacheable(Route.CompiledRoute route) {
+		return getTtl(route) > 0;
+	}
+
+	@Override
+	public synchronized Entry get(int endpoint, Route.CompiledRoute route) {
+		String key = getKey(endpoint, route);
+		Entry entry = entries.get(key);
+		if (entry == null) return null;
+
+		if (System.currentTimeMillis() >= entry.getStaleUntil()) {
+			entries.remove(key);
+			return null;
+		}
+		return entry;
+	}
+
+	@Override
+	public synchronized void put(int endpoint, Route.CompiledRoute route, String body, long requestTime) {
+		long ttl = getTtl(route);
+		// the response may have been generated before our own modification
+		if (ttl <= 0 || requestTime < lastInvalidation) return;
+
+		long now = System.currentTimeMillis();
+		entries.put(getKey(endpoint, route), new Entry(body, now + ttl, now + ttl + staleWhileRevalidate));
+	}
+
+	@Override
+	public synchronized void invalidate(Route.CompiledRoute route) {
+		lastInvalidation = System.currentTimeMillis();
+		String path = ResponseCache.getPath(route);
+
+		Iterator<String> iterator = entries.keySet().iterator();
+		while (iterator.hasNext()) {
+			String key = iterator.next();
+			int start = key.indexOf(' ') + 1;
+			int query = key.indexOf('?', start);
+			String cachedPath = query == -1 ? key.substring(start) : key.substring(start, query);
+
+			if (isRelated(path, cachedPath)) iterator.remove();
+		}
+	}
+
+	@Override
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	private static String getKey(int endpoint, Route.CompiledRoute route) {
+		return endpoint + " " + route.getCompiledRoute();
+	}
+
+	private long getTtl(Route.CompiledRoute route) {
+		return ttls.getOrDefault(route.getBaseRoute(), 0L);
+	}
+
+	private static boolean isRelated(String path, String cachedPath) {
+		return isParent(cachedPath, path) || isParent(path, cachedPath);
+	}
+
+	private static boolean isParent(String parent, String child) {
+		if (!child.startsWith(parent)) return false;
+		return child.length() == parent.length() || parent.endsWith("/") || child.charAt(parent.length()) == '/';
+	}
+}
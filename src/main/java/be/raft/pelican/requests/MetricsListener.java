@@ -0,0 +1,171 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests;
+
+/**
+ * Listener receiving metrics of the request pipeline, registered with
+ * {@link be.raft.pelican.PteroBuilder#setMetricsListener(MetricsListener)}.
+ *
+ * <p>Every method has an empty default implementation, so only the relevant metrics need to be implemented.
+ * Durations are reported in nanoseconds, routes can be grouped with {@link Route.CompiledRoute#getBaseRoute()}.
+ *
+ * <p>The methods are called directly from the request pipeline, often while holding a lock of the rate limiter.
+ * Implementations must be thread-safe, return quickly and never throw.
+ *
+ * @see InMemoryMetrics
+ */
+public interface MetricsListener {
+
+	/**
+	 * Listener that ignores every metric.
+	 */
+	MetricsListener NOOP = new MetricsListener() {};
+
+	/**
+	 * Called when the queue of a rate limiter or its amount of in-flight requests changed.
+	 *
+	 * @param rateLimiter
+	 *        The rate limiter of the API key
+	 * @param queued
+	 *        The amount of queued requests
+	 * @param inFlight
+	 *        The amount of requests that were sent and are awaiting a response
+	 */
+	default void onQueueUpdate(RateLimiter rateLimiter, int queued, int inFlight) {}
+
+	/**
+	 * Called when a rate limiter is created and whenever its concurrency limit is adapted.
+	 *
+	 * @param rateLimiter
+	 *        The rate limiter of the API key
+	 * @param limit
+	 *        The maximum amount of in-flight requests
+	 *
+	 * @see   AdaptiveConcurrency
+	 */
+	default void onConcurrencyLimitUpdate(RateLimiter rateLimiter, int limit) {}
+
+	/**
+	 * Called when a queued request failed without being sent, because the queue was full or
+	 * the request exceeded the max queue time.
+	 *
+	 * @param route
+	 *        The route of the request
+	 * @param error
+	 *        The {@link be.raft.pelican.exceptions.RequestQueueFullException RequestQueueFullException}
+	 *        or {@link java.util.concurrent.TimeoutException TimeoutException} the request failed with
+	 *
+	 * @see   QueuePolicy
+	 */
+	default void onRequestShed(Route.CompiledRoute route, Throwable error) {}
+
+	/**
+	 * Called when a request is sent for the first time.
+	 *
+	 * @param route
+	 *        The route of the request
+	 * @param queueTime
+	 *        The time the request waited in the rate limit queue
+	 */
+	default void onRequestSent(Route.CompiledRoute route, long queueTime) {}
+
+	/**
+	 * Called when the panel responded to a request.
+	 *
+	 * @param route
+	 *        The route of the request
+	 * @param code
+	 *        The status code of the response
+	 * @param networkTime
+	 *        The time between sending the request and receiving the response headers
+	 */
+	default void onResponse(Route.CompiledRoute route, int code, long networkTime) {}
+
+	/**
+	 * Called when a request failed without a response, for example because the connection failed.
+	 *
+	 * @param route
+	 *        The route of the request
+	 * @param error
+	 *        The failure
+	 * @param networkTime
+	 *        The time between sending the request and the failure
+	 */
+	default void onRequestFailed(Route.CompiledRoute route, Throwable error, long networkTime) {}
+
+	/**
+	 * Called when a successful response was decoded and handled.
+	 *
+	 * @param route
+	 *        The route of the request
+	 * @param decodeTime
+	 *        The time spent reading the body and creating the result
+	 */
+	default void onResponseHandled(Route.CompiledRoute route, long decodeTime) {}
+
+	/**
+	 * Called when a request was rate limited by the panel.
+	 *
+	 * @param route
+	 *        The route of the request
+	 * @param retryAfter
+	 *        The delay in milliseconds before the request can be sent again
+	 */
+	default void onRateLimited(Route.CompiledRoute route, long retryAfter) {}
+
+	/**
+	 * Called when a failed request is scheduled to be retried.
+	 *
+	 * @param route
+	 *        The route of the request
+	 * @param attempt
+	 *        The retry, starting at 1
+	 * @param delay
+	 *        The delay in milliseconds before the retry
+	 */
+	default void onRetry(Route.CompiledRoute route, int attempt, long delay) {}
+
+	/**
+	 * Called when a duplicate of a slow GET request is sent.
+	 *
+	 * @param route
+	 *        The route of the request
+	 * @param delay
+	 *        The delay in milliseconds after which the duplicate was sent
+	 *
+	 * @see   HedgingPolicy
+	 */
+	default void onRequestHedged(Route.CompiledRoute route, long delay) {}
+
+	/**
+	 * Called when the panel reported the rate limit budget of an API key.
+	 *
+	 * @param rateLimiter
+	 *        The rate limiter of the API key
+	 * @param budget
+	 *        The updated budget
+	 */
+	default void onRateLimitUpdate(RateLimiter rateLimiter, RateLimitBudget budget) {}
+
+	/**
+	 * Called when a success or failure callback starts running on the callback pool.
+	 *
+	 * @param lag
+	 *        The time the callback waited for a thread of the callback pool
+	 */
+	default void onCallbackLag(long lag) {}
+}
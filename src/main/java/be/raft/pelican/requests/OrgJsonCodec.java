@@ -0,0 +1,55 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests;
+
+import java.io.Reader;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+/**
+ * Default {@link JsonCodec JsonCodec} implementation, backed by org.json.
+ */
+public class OrgJsonCodec implements JsonCodec {
+
+	public static final OrgJsonCodec INSTANCE = new OrgJsonCodec();
+
+	@Override
+	public JSONObject decodeObject(Reader reader) {
+		return new JSONObject(new JSONTokener(reader));
+	}
+
+	@Override
+	public JSONArray decodeArray(Reader reader) {
+		return new JSONArray(new JSONTokener(reader));
+	}
+
+	@Override
+	public JSONObject decodeObject(String json) {
+		return new JSONObject(json);
+	}
+
+	@Override
+	public JSONArray decodeArray(String json) {
+		return new JSONArray(json);
+	}
+
+	@Override
+	public String encode(Object json) {
+		return json.toString();
+	}
+}
@@ -22,6 +22,7 @@ import be.raft.pelican.utils.Procedure;
 import be.raft.pelican.utils.StreamUtils;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -540,6 +541,64 @@ public interface PaginationAction<T> extends PteroAction<List<T>>, Iterable<T> {
 		return StreamSupport.stream(spliterator(), false);
 	}
 
+	/**
+	 * A {@link Flow.Publisher Flow.Publisher} of the entities of this PaginationAction, starting at the current page.
+	 * <br>Pages are only retrieved when the demand of the subscriber requires it, one page at a time.
+	 *
+	 * <p>Unlike the other iteration methods, this doesn't use or update the cache and the current page of this
+	 * PaginationAction, so slow subscribers can go through all entities with constant memory.
+	 * Cancelling the subscription cancels the pages that are being retrieved.
+	 *
+	 * @return A publisher of the entities, each subscriber iterates all entities independently
+	 *
+	 * @see    #publisher(int)
+	 */
+	default Flow.Publisher<T> publisher() {
+		return publisher(1);
+	}
+
+	/**
+	 * A {@link Flow.Publisher Flow.Publisher} of the entities of this PaginationAction, starting at the current page.
+	 * <br>Pages are only retrieved when the demand of the subscriber isn't covered by the entities already retrieved,
+	 * up to {@code readAhead} pages at the same time.
+	 *
+	 * <p>Unlike the other iteration methods, this doesn't use or update the cache and the current page of this
+	 * PaginationAction, so slow subscribers can go through all entities with constant memory.
+	 * Cancelling the subscription cancels the pages that are being retrieved.
+	 *
+	 * <h2>Example</h2>
+	 * <pre>{@code
+	 * application.retrieveServers().limit(100).publisher(2).subscribe(new Flow.Subscriber<>() {
+	 *     private Flow.Subscription subscription;
+	 *
+	 *     public void onSubscribe(Flow.Subscription subscription) {
+	 *         this.subscription = subscription;
+	 *         subscription.request(100);
+	 *     }
+	 *
+	 *     public void onNext(ApplicationServer server) {
+	 *         database.save(server);
+	 *         subscription.request(1);
+	 *     }
+	 *
+	 *     public void onError(Throwable error) {
+	 *         error.printStackTrace();
+	 *     }
+	 *
+	 *     public void onComplete() {}
+	 * });
+	 * }</pre>
+	 *
+	 * @param  readAhead
+	 *         The maximum amount of pages retrieved at the same time
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the read-ahead is less than 1
+	 *
+	 * @return A publisher of the entities, each subscriber iterates all entities independently
+	 */
+	Flow.Publisher<T> publisher(int readAhead);
+
 	/**
 	 * {@link PaginationIterator PaginationIterator}
 	 * that will iterate over all entities for this PaginationAction.
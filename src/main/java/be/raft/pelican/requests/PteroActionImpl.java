@@ -16,11 +16,14 @@
 
 package be.raft.pelican.requests;
 
+import be.raft.pelican.Priority;
 import be.raft.pelican.PteroAction;
 import be.raft.pelican.entities.P4J;
 import be.raft.pelican.exceptions.PteroException;
 import be.raft.pelican.utils.P4JLogger;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -37,6 +40,10 @@ public class PteroActionImpl<T> implements PteroAction<T> {
 	private final Route.CompiledRoute route;
 	private final RequestBody data;
 	private long deadline = 0;
+	private Priority priority = Priority.NORMAL;
+	private String tenant = null;
+	private boolean coalescing = true;
+	private boolean responseCache = true;
 	private final BiFunction<Response, Request<T>, T> handler;
 
 	public static <T> DeferredPteroAction<T> onExecute(P4J api, Supplier<? extends T> supplier) {
@@ -91,16 +98,46 @@ public class PteroActionImpl<T> implements PteroAction<T> {
 
 	@Override
 	public T execute(boolean shouldQueue) {
+		return await(submit(shouldQueue));
+	}
+
+	/**
+	 * Dispatches the request and returns a future completed with its result.
+	 * <br>Cancelling the future cancels the request, and aborts it if it was already sent.
+	 *
+	 * @param  shouldQueue
+	 *         Whether the request should be queued when it is rate limited, or fail with a
+	 *         {@link be.raft.pelican.exceptions.RateLimitedException RateLimitedException}
+	 *
+	 * @return Future of the result
+	 */
+	@Override
+	public CompletableFuture<T> submit(boolean shouldQueue) {
 		Route.CompiledRoute route = finalizeRoute();
 		RequestBody data = finalizeData();
+		return new RequestFuture<>(this, route, data, shouldQueue, deadline);
+	}
+
+	/**
+	 * Blocks until the future is completed, a {@link PteroException} failing the future is thrown as is.
+	 * <br>The future is cancelled when the waiting thread is interrupted.
+	 *
+	 * @param  future
+	 *         The future to wait for
+	 *
+	 * @return The result of the future
+	 */
+	public static <E> E await(CompletableFuture<E> future) {
 		try {
-			return new RequestFuture<>(this, route, data, shouldQueue, deadline).join();
-		} catch (CompletionException ex) {
-			if (ex.getCause() != null) {
-				Throwable cause = ex.getCause();
-				if (cause instanceof PteroException) throw (PteroException) cause.fillInStackTrace();
-			}
-			throw ex;
+			return future.get();
+		} catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof PteroException) throw (PteroException) cause.fillInStackTrace();
+			throw new CompletionException(cause);
+		} catch (InterruptedException ex) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new CompletionException(ex);
 		}
 	}
 
@@ -126,6 +163,50 @@ public class PteroActionImpl<T> implements PteroAction<T> {
 		return this;
 	}
 
+	public long getDeadline() {
+		return deadline;
+	}
+
+	@Override
+	public PteroAction<T> priority(Priority priority) {
+		this.priority = priority == null ? Priority.NORMAL : priority;
+		return this;
+	}
+
+	public Priority getPriority() {
+		return priority;
+	}
+
+	@Override
+	public PteroAction<T> tenant(String tenant) {
+		this.tenant = tenant;
+		return this;
+	}
+
+	public String getTenant() {
+		return tenant;
+	}
+
+	@Override
+	public PteroAction<T> coalesce(boolean enable) {
+		this.coalescing = enable;
+		return this;
+	}
+
+	public boolean isCoalescing() {
+		return coalescing;
+	}
+
+	@Override
+	public PteroAction<T> useResponseCache(boolean enable) {
+		this.responseCache = enable;
+		return this;
+	}
+
+	public boolean isUsingResponseCache() {
+		return responseCache;
+	}
+
 	@Override
 	public P4J getP4J() {
 		return api;
@@ -150,10 +231,10 @@ public class PteroActionImpl<T> implements PteroAction<T> {
 	}
 
 	public static RequestBody getRequestBody(JSONObject object) {
-		return object == null ? null : RequestBody.create(Requester.MEDIA_TYPE_JSON, object.toString());
+		return object == null ? null : new JsonRequestBody(object);
 	}
 
 	public static RequestBody getRequestBody(JSONArray array) {
-		return array == null ? null : RequestBody.create(Requester.MEDIA_TYPE_JSON, array.toString());
+		return array == null ? null : new JsonRequestBody(array);
 	}
 }
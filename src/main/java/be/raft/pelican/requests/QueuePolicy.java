@@ -0,0 +1,181 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests;
+
+import be.raft.pelican.utils.Checks;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the queue of pending requests of every API key, configured with {@link be.raft.pelican.PteroBuilder#setQueuePolicy(QueuePolicy)}.
+ *
+ * <p>Once the {@link #setCapacity(int) capacity} is reached, the {@link Overflow overflow} decides what happens to
+ * a new request. Requests that are shed fail with a {@link be.raft.pelican.exceptions.RequestQueueFullException RequestQueueFullException}.
+ * Requests that were already queued, such as rate limited requests waiting for the limit to reset, are never rejected.
+ *
+ * <p>Requests that waited longer than the {@link #setMaxQueueTime(long, TimeUnit) max queue time} fail with a
+ * {@link java.util.concurrent.TimeoutException TimeoutException}, even while their bucket is rate limited,
+ * so the queue is emptied during a long outage.
+ *
+ * <h2>Example</h2>
+ * <pre>{@code
+ * QueuePolicy policy = QueuePolicy.create()
+ *         .setCapacity(500)
+ *         .setOverflow(QueuePolicy.Overflow.DROP_LOWEST_PRIORITY)
+ *         .setMaxQueueTime(2, TimeUnit.MINUTES);
+ * }</pre>
+ */
+public class QueuePolicy {
+
+	private int capacity = Integer.MAX_VALUE;
+	private Overflow overflow = Overflow.REJECT;
+	private long blockTimeout = 5_000;
+	private long maxQueueTime = 0;
+
+	/**
+	 * Creates a new QueuePolicy with the default settings.
+	 *
+	 * @return The new QueuePolicy
+	 */
+	public static QueuePolicy create() {
+		return new QueuePolicy();
+	}
+
+	/**
+	 * Sets the maximum amount of queued requests per API key.
+	 *
+	 * <p>Default: <b>unbounded</b>
+	 *
+	 * @param  capacity
+	 *         The maximum amount of queued requests, must be at least 1
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the capacity is lower than 1
+	 *
+	 * @return The QueuePolicy instance. Useful for chaining.
+	 */
+	public QueuePolicy setCapacity(int capacity) {
+		Checks.check(capacity > 0, "Capacity must be at least 1");
+		this.capacity = capacity;
+		return this;
+	}
+
+	/**
+	 * Sets what happens to a new request when the queue is full.
+	 *
+	 * <p>Default: <b>{@link Overflow#REJECT}</b>
+	 *
+	 * @param  overflow
+	 *         The overflow policy
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the overflow policy is null
+	 *
+	 * @return The QueuePolicy instance. Useful for chaining.
+	 */
+	public QueuePolicy setOverflow(Overflow overflow) {
+		Checks.notNull(overflow, "Overflow");
+		this.overflow = overflow;
+		return this;
+	}
+
+	/**
+	 * Sets how long a caller is blocked waiting for space in the queue, when using {@link Overflow#BLOCK}.
+	 * <br>The request is rejected once the timeout has passed.
+	 *
+	 * <p>Default: <b>5 seconds</b>
+	 *
+	 * @param  timeout
+	 *         The maximum time to block
+	 * @param  unit
+	 *         The time unit of the timeout
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the timeout is negative or the time unit is null
+	 *
+	 * @return The QueuePolicy instance. Useful for chaining.
+	 */
+	public QueuePolicy setBlockTimeout(long timeout, TimeUnit unit) {
+		Checks.notNull(unit, "TimeUnit");
+		Checks.check(timeout >= 0, "Block timeout must not be negative");
+		this.blockTimeout = unit.toMillis(timeout);
+		return this;
+	}
+
+	/**
+	 * Sets the maximum time a request may wait in the queue before it fails, 0 to wait indefinitely.
+	 *
+	 * <p>Default: <b>0</b>
+	 *
+	 * @param  maxQueueTime
+	 *         The maximum queue time
+	 * @param  unit
+	 *         The time unit of the queue time
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the queue time is negative or the time unit is null
+	 *
+	 * @return The QueuePolicy instance. Useful for chaining.
+	 */
+	public QueuePolicy setMaxQueueTime(long maxQueueTime, TimeUnit unit) {
+		Checks.notNull(unit, "TimeUnit");
+		Checks.check(maxQueueTime >= 0, "Max queue time must not be negative");
+		this.maxQueueTime = unit.toMillis(maxQueueTime);
+		return this;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public Overflow getOverflow() {
+		return overflow;
+	}
+
+	public long getBlockTimeout() {
+		return blockTimeout;
+	}
+
+	public long getMaxQueueTime() {
+		return maxQueueTime;
+	}
+
+	/**
+	 * What happens to a new request when the queue is full.
+	 */
+	public enum Overflow {
+		/**
+		 * The new request fails.
+		 */
+		REJECT,
+		/**
+		 * The request that waited the longest fails, and the new request is queued.
+		 */
+		DROP_OLDEST,
+		/**
+		 * The newest request with the lowest priority fails if its priority is lower than the new request,
+		 * otherwise the new request fails.
+		 */
+		DROP_LOWEST_PRIORITY,
+		/**
+		 * The thread queueing the request is blocked until there is space in the queue,
+		 * the new request fails once the {@link #setBlockTimeout(long, TimeUnit) block timeout} has passed.
+		 * <br>Requests that are sent again by P4J itself, such as revalidations of cached responses,
+		 * are never blocked and fail immediately instead.
+		 */
+		BLOCK
+	}
+}
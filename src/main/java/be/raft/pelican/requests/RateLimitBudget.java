@@ -0,0 +1,95 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests;
+
+/**
+ * Snapshot of the rate limit budget of the API key, as observed from the
+ * {@code X-RateLimit-Limit}, {@code X-RateLimit-Remaining} and {@code X-RateLimit-Reset} headers.
+ *
+ * @see RateLimiter#getBudget()
+ */
+public final class RateLimitBudget {
+
+	private final int limit;
+	private final int remaining;
+	private final long resetTime;
+	private final long sendInterval;
+	private final boolean pacing;
+
+	RateLimitBudget(int limit, int remaining, long resetTime, long sendInterval, boolean pacing) {
+		this.limit = limit;
+		this.remaining = remaining;
+		this.resetTime = resetTime;
+		this.sendInterval = sendInterval;
+		this.pacing = pacing;
+	}
+
+	/**
+	 * The amount of requests allowed in a rate limit window.
+	 *
+	 * @return The request limit, or 0 if no response has been received yet
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * The estimated amount of requests that can still be sent in the current window.
+	 * <br>This accounts for the requests that have been dispatched since the last response.
+	 *
+	 * @return The remaining requests
+	 */
+	public int getRemaining() {
+		return remaining;
+	}
+
+	/**
+	 * The epoch millisecond timestamp at which the panel resets the limit.
+	 * <br>The panel only sends this when a request has been rate limited.
+	 *
+	 * @return The reset timestamp, or 0 if unknown
+	 */
+	public long getResetTime() {
+		return resetTime;
+	}
+
+	/**
+	 * The delay in milliseconds that is kept between two requests to spread the remaining budget
+	 * over the rate limit window.
+	 *
+	 * @return The send interval, always 0 when pacing is disabled
+	 */
+	public long getSendInterval() {
+		return sendInterval;
+	}
+
+	/**
+	 * Whether requests are paced using the observed budget.
+	 *
+	 * @return True, if pacing is enabled
+	 *
+	 * @see be.raft.pelican.PteroBuilder#setRateLimitPacing(boolean)
+	 */
+	public boolean isPacing() {
+		return pacing;
+	}
+
+	@Override
+	public String toString() {
+		return "RateLimitBudget(" + remaining + "/" + limit + ", interval: " + sendInterval + " ms)";
+	}
+}
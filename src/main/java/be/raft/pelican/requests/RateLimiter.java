@@ -17,17 +17,24 @@
 package be.raft.pelican.requests;
 
 import be.raft.pelican.entities.P4J;
+import be.raft.pelican.exceptions.RequestQueueFullException;
 import be.raft.pelican.utils.LockUtils;
 import be.raft.pelican.utils.P4JLogger;
-import java.util.Iterator;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 import okhttp3.Headers;
 import org.slf4j.Logger;
 
-public class RateLimiter implements Runnable {
+public class RateLimiter {
 
 	public static final Logger RATELIMIT_LOG = P4JLogger.getLogger(RateLimiter.class);
 
@@ -36,44 +43,567 @@ public class RateLimiter implements Runnable {
 	private static final String RETRY_AFTER_HEADER = "Retry-After";
 	private static final String REMAINING_HEADER = "X-RateLimit-Remaining";
 
+	// the panel uses a per minute limiter and only sends the reset header once a request is rate limited
+	private static final long DEFAULT_WINDOW = TimeUnit.MINUTES.toMillis(1);
+
 	private final Requester requester;
 	private final ScheduledExecutorService scheduler;
 
-	private final Queue<Request<?>> requests = new ConcurrentLinkedQueue<>();
-	private final Map<RateLimiter, Future<?>> rateLimitQueue = new ConcurrentHashMap<>();
+	private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+	private final Map<Bucket, Future<?>> rateLimitQueue = new ConcurrentHashMap<>();
+	// buckets with queued requests that are waiting for an in-flight slot
+	private final Set<Bucket> starved = new LinkedHashSet<>();
+	private final ConcurrencyLimit concurrencyLimit;
+	private int inFlight = 0;
+	private int queued = 0;
+
+	// bounds of the queue, null when unbounded
+	private final QueuePolicy queuePolicy;
+	private Future<?> expiry;
 
-	private long reset = 0;
-	private int limit = 1;
-	private long retryAfter = 0;
-	private int remaining = 1;
+	// tenants with queued requests, in the order of their turn
+	private final Map<String, Integer> tenantWeights;
+	private final Map<String, Tenant> tenants = new HashMap<>();
+	private final Deque<Tenant> rotation = new ArrayDeque<>();
+
+	// budget of the API key, shared by every bucket
+	private final boolean pacing;
+	private volatile int budgetLimit = 0;
+	private volatile int budgetRemaining = 0;
+	private volatile long budgetReset = 0;
+	private volatile long nextPermit = 0;
 
 	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notFull = lock.newCondition();
 
 	public RateLimiter(Requester requester, P4J api) {
 		this.requester = requester;
 		this.scheduler = api.getRateLimitPool();
+		this.concurrencyLimit = new ConcurrencyLimit(api.getAdaptiveConcurrency(), api.getMaxConcurrentRequests());
+		this.pacing = api.isRateLimitPacing();
+		this.queuePolicy = api.getQueuePolicy();
+		this.tenantWeights = api.getTenantWeights();
+		requester.getMetrics().onConcurrencyLimitUpdate(this, concurrencyLimit.get());
 	}
 
 	public void queueRequest(Request<?> request) {
-		LockUtils.locked(lock, () -> {
-			requests.offer(request);
-			runQueue();
-		});
+		queueRequest(request, true);
+	}
+
+	/**
+	 * Queues a request, making space according to the {@link QueuePolicy} if the queue is full.
+	 *
+	 * @param request
+	 *        The request
+	 * @param mayBlock
+	 *        Whether the calling thread may be blocked by {@link QueuePolicy.Overflow#BLOCK},
+	 *        otherwise the request is rejected when the queue is full
+	 */
+	void queueRequest(Request<?> request, boolean mayBlock) {
+		List<Runnable> shed = new ArrayList<>(1);
+		lock.lock();
+		try {
+			if (admit(request, mayBlock, shed)) {
+				Bucket bucket = getBucket(request.getRoute());
+				bucket.requests.offer(request);
+				enqueued(request);
+				reportQueue();
+				scheduleExpiry();
+				runQueue(bucket);
+			}
+		} finally {
+			lock.unlock();
+		}
+		// fail the shed requests outside of the lock, their callbacks may queue new requests
+		shed.forEach(Runnable::run);
+	}
+
+	/**
+	 * Makes space for a new request according to the {@link QueuePolicy}, blocking the caller if allowed.
+	 *
+	 * @return True, if the request can be queued, otherwise it was rejected
+	 */
+	private boolean admit(Request<?> request, boolean mayBlock, List<Runnable> shed) {
+		if (queuePolicy == null || queued < queuePolicy.getCapacity()) return true;
+
+		switch (queuePolicy.getOverflow()) {
+			case DROP_OLDEST:
+				Request<?> oldest = findOldest();
+				if (oldest == null) return true;
+				shed.add(drop(oldest));
+				return true;
+			case DROP_LOWEST_PRIORITY:
+				Request<?> lowest = findLowest();
+				if (lowest == null) return true;
+				// the new request isn't queued yet, so it hasn't been promoted
+				if (RequestQueue.getEffectivePriority(lowest, getNow()) <= request.getPriority().ordinal()) break;
+				shed.add(drop(lowest));
+				return true;
+			case BLOCK:
+				if (!mayBlock) break;
+				long remaining = TimeUnit.MILLISECONDS.toNanos(queuePolicy.getBlockTimeout());
+				try {
+					while (queued >= queuePolicy.getCapacity() && remaining > 0L)
+						remaining = notFull.awaitNanos(remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				if (queued < queuePolicy.getCapacity()) return true;
+				break;
+			default:
+				break;
+		}
+
+		RequestQueueFullException error = new RequestQueueFullException(queuePolicy.getCapacity(), false);
+		shed.add(() -> shed(request, error));
+		return false;
+	}
+
+	private Request<?> findOldest() {
+		Request<?> oldest = null;
+		for (Bucket bucket : buckets.values()) {
+			Request<?> candidate = bucket.requests.peekOldest();
+			if (candidate != null && (oldest == null || candidate.getQueueTime() < oldest.getQueueTime()))
+				oldest = candidate;
+		}
+		return oldest;
+	}
+
+	private Request<?> findLowest() {
+		long now = getNow();
+		Request<?> lowest = null;
+		for (Bucket bucket : buckets.values()) {
+			Request<?> candidate = bucket.requests.peekLowest();
+			if (candidate == null) continue;
+			if (lowest == null || RequestQueue.isLower(candidate, lowest, now)) lowest = candidate;
+		}
+		return lowest;
+	}
+
+	private Runnable drop(Request<?> request) {
+		if (getBucket(request.getRoute()).requests.remove(request)) dequeued(request);
+		RequestQueueFullException error = new RequestQueueFullException(queuePolicy.getCapacity(), true);
+		return () -> shed(request, error);
+	}
+
+	private void shed(Request<?> request, Exception error) {
+		Route.CompiledRoute route = request.getRoute();
+		RATELIMIT_LOG.debug("Shedding request {} {}: {}", route.getMethod(), route.getCompiledRoute(), error.getMessage());
+		requester.getMetrics().onRequestShed(route, error);
+		request.onFailure(error);
+	}
+
+	/**
+	 * Schedules the removal of the requests that exceed the max queue time of the {@link QueuePolicy},
+	 * once the oldest queued request expires.
+	 */
+	private void scheduleExpiry() {
+		if (queuePolicy == null || queuePolicy.getMaxQueueTime() == 0L || expiry != null) return;
+
+		Request<?> oldest = findOldest();
+		if (oldest == null) return;
+
+		long delay = oldest.getQueueTime() + queuePolicy.getMaxQueueTime() - getNow();
+		expiry = scheduler.schedule(this::expire, Math.max(delay, 0L), TimeUnit.MILLISECONDS);
+	}
+
+	private void expire() {
+		List<Request<?>> expired = new ArrayList<>();
+		lock.lock();
+		try {
+			expiry = null;
+			long queuedBefore = getNow() - queuePolicy.getMaxQueueTime();
+			for (Bucket bucket : buckets.values()) expired.addAll(bucket.requests.removeExpired(queuedBefore));
+			expired.forEach(this::dequeued);
+			reportQueue();
+			scheduleExpiry();
+		} finally {
+			lock.unlock();
+		}
+		expired.forEach(request -> shed(request, new TimeoutException("Action has waited too long in the queue")));
 	}
 
 	public Long handleResponse(Request<?> request, okhttp3.Response response) {
 		lock.lock();
 		try {
-			updateRequest(request, response);
-			if (response.code() == 429) return getRateLimit();
+			Bucket bucket = getBucket(request.getRoute());
+			bucket.update(request, response);
+			if (response.headers().get(LIMIT_HEADER) != null) {
+				updateBudget(bucket);
+				requester.getMetrics().onRateLimitUpdate(this, getBudget());
+			}
+			if (response.code() == 429) return bucket.getRateLimit();
 			else return null;
 		} finally {
 			lock.unlock();
 		}
 	}
 
-	private void updateRequest(Request<?> request, okhttp3.Response response) {
+	public long getRateLimit(Route.CompiledRoute route) {
+		Bucket bucket = buckets.get(route.getBucket());
+		return bucket == null ? 0L : bucket.getRateLimit();
+	}
+
+	/**
+	 * The amount of requests that are queued or in flight, used to balance reads between API keys.
+	 *
+	 * @return The load, or {@link Integer#MAX_VALUE} if the bucket of the route is currently rate limited
+	 */
+	int getLoad(Route.CompiledRoute route) {
+		lock.lock();
+		try {
+			if (getRateLimit(route) > 0) return Integer.MAX_VALUE;
+			int load = inFlight;
+			for (Bucket bucket : buckets.values()) load += bucket.requests.size();
+			return load;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * The current maximum amount of in-flight requests of the API key.
+	 *
+	 * @return The concurrency limit
+	 */
+	public int getConcurrencyLimit() {
+		lock.lock();
+		try {
+			return concurrencyLimit.get();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Updates the concurrency limit with the outcome of a request, when {@link AdaptiveConcurrency} is enabled.
+	 *
+	 * @param route
+	 *        The route of the request
+	 * @param latency
+	 *        The time between sending the request and its outcome, in nanoseconds
+	 * @param overloaded
+	 *        Whether the panel responded with a 5xx or a 429, or the connection failed
+	 */
+	void onSample(Route route, long latency, boolean overloaded) {
+		lock.lock();
+		try {
+			int previous = concurrencyLimit.get();
+			if (!concurrencyLimit.update(route, latency, inFlight, overloaded)) return;
+
+			int limit = concurrencyLimit.get();
+			RATELIMIT_LOG.debug("Concurrency limit changed from {} to {}", previous, limit);
+			requester.getMetrics().onConcurrencyLimitUpdate(this, limit);
+			if (limit > previous) wakeStarved();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Whether no request is queued or in flight.
+	 *
+	 * @return True, if the rate limiter is idle
+	 */
+	boolean isIdle() {
+		lock.lock();
+		try {
+			return queued == 0 && inFlight == 0;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Removes every queued request without executing it.
+	 *
+	 * @return The removed requests
+	 */
+	List<Request<?>> drainQueue() {
+		lock.lock();
+		try {
+			List<Request<?>> drained = new ArrayList<>(queued);
+			for (Bucket bucket : buckets.values()) drained.addAll(bucket.requests.clear());
+			rateLimitQueue.values().forEach(task -> task.cancel(false));
+			rateLimitQueue.clear();
+			if (expiry != null) expiry.cancel(false);
+			expiry = null;
+			starved.clear();
+			queued = 0;
+			tenants.clear();
+			rotation.clear();
+			reportQueue();
+			return drained;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Takes a request from the rate limit budget for a duplicate of a hedged request.
+	 *
+	 * @param  route
+	 *         The route of the request
+	 * @param  minBudget
+	 *         The fraction of the budget that must remain
+	 *
+	 * @return True, if the duplicate can be sent
+	 */
+	boolean acquireHedge(Route.CompiledRoute route, double minBudget) {
+		lock.lock();
+		try {
+			// hedge only once the panel reported the budget
+			if (budgetLimit == 0 || budgetRemaining <= budgetLimit * minBudget) return false;
+
+			Bucket bucket = getBucket(route);
+			if (bucket.getRateLimit() > 0L || getPacingDelay() > 0L) return false;
+			bucket.remaining--;
+			budgetRemaining--;
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * The current rate limit budget of the API key.
+	 *
+	 * @return Snapshot of the budget
+	 */
+	public RateLimitBudget getBudget() {
+		return new RateLimitBudget(
+				budgetLimit, budgetRemaining, budgetReset, pacing ? getSendInterval() : 0L, pacing);
+	}
+
+	private void updateBudget(Bucket bucket) {
+		budgetLimit = bucket.limit;
+		budgetRemaining = bucket.remaining;
+		budgetReset = bucket.reset;
+	}
+
+	private long getSendInterval() {
+		if (budgetLimit == 0) return 0L;
+
+		long now = getNow();
+		long window = budgetReset > now ? budgetReset - now : DEFAULT_WINDOW;
+		return window / Math.max(budgetRemaining, 1);
+	}
+
+	private long getPacingDelay() {
+		if (!pacing) return 0L;
+		return Math.max(0L, nextPermit - getNow());
+	}
+
+	private void acquirePermit() {
+		if (!pacing) return;
+		nextPermit = getNow() + getSendInterval();
+		if (budgetRemaining > 0) budgetRemaining--;
+	}
+
+	private Bucket getBucket(Route.CompiledRoute route) {
+		return buckets.computeIfAbsent(route.getBucket(), Bucket::new);
+	}
+
+	private void runQueue(Bucket bucket) {
+		LockUtils.locked(
+				lock,
+				() -> rateLimitQueue.computeIfAbsent(
+						bucket,
+						k -> scheduler.schedule(
+								bucket,
+								Math.max(bucket.getRateLimit(), getPacingDelay()),
+								TimeUnit.MILLISECONDS)));
+	}
+
+	private Request<?> nextRequest(Bucket bucket) {
+		lock.lock();
+		try {
+			if (inFlight >= concurrencyLimit.get() || getPacingDelay() > 0L) return null;
+
+			Request<?> request = null;
+			while (request == null) {
+				Tenant tenant = nextTenant(bucket);
+				if (tenant == null) break;
+
+				request = bucket.requests.poll(tenant.name);
+				dequeued(request);
+				if (request.isSkipped()) request = null;
+				else charge(tenant);
+			}
+
+			if (request != null) {
+				inFlight++;
+				acquirePermit();
+			}
+			reportQueue();
+			return request;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void dispatch(Request<?> request) {
+		CompletableFuture<Long> future;
+		try {
+			future = requester.execute(request);
+		} catch (Exception ex) {
+			future = CompletableFuture.failedFuture(ex);
+		}
+
+		future.whenComplete((retryAfter, error) -> LockUtils.locked(lock, () -> {
+			inFlight--;
+			if (error != null) RATELIMIT_LOG.error("Encountered exception trying to execute request", error);
+			// the request was rate limited, put it back in front so it is the first to go once the limit resets
+			else if (retryAfter != null) {
+				Bucket target = getBucket(request.getRoute());
+				target.requests.offerFirst(request);
+				enqueued(request);
+				runQueue(target);
+			}
+			reportQueue();
+			wakeStarved();
+		}));
+	}
+
+	private void reportQueue() {
+		// wake the callers blocked by a full queue
+		if (queuePolicy != null && queued < queuePolicy.getCapacity()) notFull.signalAll();
+		requester.getMetrics().onQueueUpdate(this, queued, inFlight);
+	}
+
+	private void wakeStarved() {
+		LockUtils.locked(lock, () -> {
+			// a rate limited bucket can't use the free slot, resume it once the limit resets
+			starved.removeIf(bucket -> {
+				if (bucket.requests.isEmpty()) return true;
+				if (bucket.getRateLimit() == 0L) return false;
+				runQueue(bucket);
+				return true;
+			});
+
+			Tenant tenant = nextTenant(null);
+			if (tenant == null) return;
+
+			// resume the bucket holding the most urgent request of the tenant in turn
+			Bucket bucket = null;
+			long best = Long.MAX_VALUE;
+			for (Bucket candidate : starved) {
+				long rank = candidate.requests.rank(tenant.name);
+				if (rank < best) {
+					bucket = candidate;
+					best = rank;
+				}
+			}
+
+			// otherwise the bucket of the tenant is already scheduled
+			if (bucket == null) return;
+			starved.remove(bucket);
+			runQueue(bucket);
+		});
+	}
+
+	private void backoff(Bucket bucket) {
 		LockUtils.locked(lock, () -> {
+			rateLimitQueue.remove(bucket);
+
+			if (bucket.requests.isEmpty()) {
+				if (bucket.getRateLimit() == 0L) buckets.remove(bucket.key, bucket);
+			} else if (inFlight < concurrencyLimit.get()) {
+				if (nextTenant(bucket) != null) runQueue(bucket);
+				else {
+					// it's the turn of a tenant without requests in this bucket, let it use the free slot
+					starved.add(bucket);
+					wakeStarved();
+				}
+			}
+			// when every slot is taken, the next completed request will resume the bucket
+			else starved.add(bucket);
+		});
+	}
+
+	private void enqueued(Request<?> request) {
+		queued++;
+		Tenant tenant = tenants.get(request.getTenant());
+		if (tenant == null) {
+			tenant = new Tenant(request.getTenant(), tenantWeights.getOrDefault(request.getTenant(), 1));
+			tenants.put(tenant.name, tenant);
+			rotation.addLast(tenant);
+		}
+		tenant.queued++;
+	}
+
+	private void dequeued(Request<?> request) {
+		queued--;
+		Tenant tenant = tenants.get(request.getTenant());
+		if (tenant != null && --tenant.queued == 0) {
+			tenants.remove(tenant.name);
+			rotation.remove(tenant);
+		}
+	}
+
+	/**
+	 * Selects the tenant whose request is sent next, using deficit round robin.
+	 * <br>Every round, a tenant may send as many requests as its weight. Tenants whose requests
+	 * are all in rate limited buckets are skipped, so they can't hold back the other tenants.
+	 *
+	 * @param  bucket
+	 *         The bucket that sends the request, or null to select from every bucket
+	 *
+	 * @return The tenant, or null if it is the turn of a tenant without requests in the bucket
+	 */
+	private Tenant nextTenant(Bucket bucket) {
+		for (int round = 0; round < 2; round++) {
+			for (Tenant tenant : rotation) {
+				if (tenant.deficit <= 0) continue;
+				if (bucket != null && bucket.requests.contains(tenant.name)) return tenant;
+				if (isSendable(tenant)) return bucket == null ? tenant : null;
+			}
+
+			// every tenant that can send a request used its quantum, start a new round
+			for (Tenant tenant : rotation) tenant.deficit = tenant.weight;
+		}
+		return null;
+	}
+
+	private boolean isSendable(Tenant tenant) {
+		for (Bucket bucket : buckets.values()) {
+			if (bucket.getRateLimit() == 0L && bucket.requests.contains(tenant.name)) return true;
+		}
+		return false;
+	}
+
+	private void charge(Tenant tenant) {
+		// the tenant used its quantum, the next one takes its turn
+		if (--tenant.deficit == 0 && rotation.remove(tenant)) rotation.addLast(tenant);
+	}
+
+	public long getNow() {
+		return System.currentTimeMillis();
+	}
+
+	private long parseLong(String input) {
+		return input == null ? 0L : Long.parseLong(input);
+	}
+
+	private long parseDouble(String input) {
+		return input == null ? 0L : (long) (Double.parseDouble(input) * 1000);
+	}
+
+	private class Bucket implements Runnable {
+
+		private final String key;
+		private final RequestQueue requests = new RequestQueue();
+
+		private long reset = 0;
+		private int limit = 1;
+		private long retryAfter = 0;
+		private int remaining = 1;
+
+		private Bucket(String key) {
+			this.key = key;
+		}
+
+		private void update(Request<?> request, okhttp3.Response response) {
 			try {
 				Headers headers = response.headers();
 				long now = getNow();
@@ -95,7 +625,8 @@ public class RateLimiter implements Runnable {
 				this.remaining = (int) parseLong(remainingHeader);
 				this.retryAfter = parseDouble(retryAfterHeader);
 				this.reset = parseDouble(resetHeader);
-				RATELIMIT_LOG.trace("Updated to ({}/{}, {})", this.remaining, this.limit, this.reset - now);
+				RATELIMIT_LOG.trace(
+						"Updated bucket {} to ({}/{}, {})", key, this.remaining, this.limit, this.reset - now);
 			} catch (Exception e) {
 				RATELIMIT_LOG.error(
 						"Encountered Exception while updating the rate limiter. Route: {} Code: {} Headers:\n{}",
@@ -103,83 +634,54 @@ public class RateLimiter implements Runnable {
 						response.code(),
 						response.headers());
 			}
-		});
-	}
-
-	private void runQueue() {
-		LockUtils.locked(
-				lock,
-				() -> rateLimitQueue.computeIfAbsent(
-						this, k -> scheduler.schedule(this, getRateLimit(), TimeUnit.MILLISECONDS)));
-	}
-
-	private void cancel(Iterator<Request<?>> it, Request<?> request) {
-		request.onCancelled();
-		it.remove();
-	}
-
-	private boolean isSkipped(Iterator<Request<?>> it, Request<?> request) {
-		if (request.isSkipped()) {
-			cancel(it, request);
-			return true;
 		}
-		return false;
-	}
 
-	private void backoff() {
-		LockUtils.locked(lock, () -> {
-			rateLimitQueue.remove(this);
-			if (!requests.isEmpty()) runQueue();
-		});
-	}
-
-	@Override
-	public void run() {
-		RATELIMIT_LOG.trace("Rate limiter is running {} requests", requests.size());
-
-		Iterator<Request<?>> iterator = requests.iterator();
-		while (iterator.hasNext()) {
-			Long rateLimit = getRateLimit();
-			if (rateLimit > 0L) {
-				RATELIMIT_LOG.debug("Backing off {} ms", rateLimit);
-				break;
+		private long getRateLimit() {
+			long now = getNow();
+			if (reset <= now) {
+				remaining = limit;
+				return 0L;
 			}
+			return remaining < 1 ? retryAfter : 0L;
+		}
 
-			Request<?> request = iterator.next();
+		@Override
+		public void run() {
+			RATELIMIT_LOG.trace(
+					"Rate limiter is running {} requests on bucket {} ({} in flight)", requests.size(), key, inFlight);
 
-			if (isSkipped(iterator, request)) continue;
+			while (!requests.isEmpty()) {
+				long rateLimit = getRateLimit();
+				if (rateLimit > 0L) {
+					RATELIMIT_LOG.debug("Backing off {} ms on bucket {}", rateLimit, key);
+					break;
+				}
 
-			try {
-				rateLimit = requester.execute(request);
-				if (rateLimit != null) break;
-				iterator.remove();
-			} catch (Exception ex) {
-				RATELIMIT_LOG.error("Encountered exception trying to execute request");
-				ex.printStackTrace();
-				break;
+				Request<?> request = nextRequest(this);
+				if (request == null) break;
+
+				dispatch(request);
 			}
+			backoff(this);
 		}
-		backoff();
-	}
 
-	public long getRateLimit() {
-		long now = getNow();
-		if (reset <= now) {
-			remaining = limit;
-			return 0L;
+		@Override
+		public String toString() {
+			return "Bucket(" + key + ")";
 		}
-		return remaining < 1 ? retryAfter : 0L;
 	}
 
-	public long getNow() {
-		return System.currentTimeMillis();
-	}
+	private static final class Tenant {
 
-	private long parseLong(String input) {
-		return input == null ? 0L : Long.parseLong(input);
-	}
+		private final String name;
+		private final int weight;
+		private int deficit;
+		private int queued = 0;
 
-	private long parseDouble(String input) {
-		return input == null ? 0L : (long) (Double.parseDouble(input) * 1000);
+		private Tenant(String name, int weight) {
+			this.name = name;
+			this.weight = weight;
+			this.deficit = weight;
+		}
 	}
 }
@@ -16,10 +16,15 @@
 
 package be.raft.pelican.requests;
 
+import be.raft.pelican.Priority;
 import be.raft.pelican.exceptions.*;
+import java.util.List;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import okhttp3.Call;
 import okhttp3.RequestBody;
 
 public class Request<T> {
@@ -31,9 +36,16 @@ public class Request<T> {
 	private final RequestBody requestBody;
 	private final boolean shouldQueue;
 	private final long deadline;
+	private final Priority priority;
+	private final String tenant;
+	private final boolean coalescing;
+	private final boolean responseCache;
 
-	private boolean done = false;
-	private boolean isCancelled = false;
+	private long queueTime = 0;
+	private int endpoint = -1;
+	private final AtomicBoolean done = new AtomicBoolean();
+	private volatile boolean isCancelled = false;
+	private final List<Call> calls = new CopyOnWriteArrayList<>();
 
 	public Request(
 			PteroActionImpl<T> action,
@@ -50,12 +62,17 @@ public class Request<T> {
 		this.requestBody = requestBody;
 		this.shouldQueue = shouldQueue;
 		this.deadline = deadline;
+		this.priority = action.getPriority();
+		this.tenant = action.getTenant();
+		this.coalescing = action.isCoalescing();
+		this.responseCache = action.isUsingResponseCache();
 	}
 
 	public void onSuccess(T success) {
-		if (done) return;
-		done = true;
+		if (!done.compareAndSet(false, true)) return;
+		long submitted = System.nanoTime();
 		action.getP4J().getCallbackPool().execute(() -> {
+			reportCallbackLag(submitted);
 			try {
 				onSuccess.accept(success);
 			} catch (Throwable t) {
@@ -92,9 +109,10 @@ public class Request<T> {
 	}
 
 	public void onFailure(Throwable failException) {
-		if (done) return;
-		done = true;
+		if (!done.compareAndSet(false, true)) return;
+		long submitted = System.nanoTime();
 		action.getP4J().getCallbackPool().execute(() -> {
+			reportCallbackLag(submitted);
 			try {
 				onFailure.accept(failException);
 			} catch (Throwable t) {
@@ -104,8 +122,17 @@ public class Request<T> {
 		});
 	}
 
+	private void reportCallbackLag(long submitted) {
+		MetricsListener metrics = action.getP4J().getMetricsListener();
+		if (metrics != null) metrics.onCallbackLag(System.nanoTime() - submitted);
+	}
+
+	/**
+	 * Cancels the request, aborting the HTTP call if it was already sent.
+	 */
 	public void cancel() {
 		this.isCancelled = true;
+		calls.forEach(Call::cancel);
 	}
 
 	public boolean isCancelled() {
@@ -143,6 +170,55 @@ public class Request<T> {
 		return shouldQueue;
 	}
 
+	public Priority getPriority() {
+		return priority;
+	}
+
+	public String getTenant() {
+		return tenant;
+	}
+
+	public boolean isCoalescing() {
+		return coalescing;
+	}
+
+	public boolean isUsingResponseCache() {
+		return responseCache;
+	}
+
+	public long getDeadline() {
+		return deadline;
+	}
+
+	public long getQueueTime() {
+		return queueTime;
+	}
+
+	int getEndpoint() {
+		return endpoint;
+	}
+
+	void setEndpoint(int endpoint) {
+		this.endpoint = endpoint;
+	}
+
+	void setCall(Call call) {
+		// a new attempt replaces the calls of the previous one
+		calls.clear();
+		addCall(call);
+	}
+
+	void addCall(Call call) {
+		calls.add(call);
+		// cancelled while the call was being created
+		if (isCancelled) call.cancel();
+	}
+
+	void markQueued() {
+		// keep the original time when a rate limited request is put back in the queue
+		if (queueTime == 0) queueTime = System.currentTimeMillis();
+	}
+
 	private boolean isTimeout() {
 		return deadline > 0 && deadline < System.currentTimeMillis();
 	}
@@ -0,0 +1,70 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package be.raft.pelican.requests;
+
+/**
+ * Interceptor called around every request sent by the requester, registered with
+ * {@link be.raft.pelican.PteroBuilder#addInterceptor(RequestInterceptor)}.
+ *
+ * <p>Interceptors form an ordered chain. {@link #onRequest(Request, okhttp3.Request.Builder)} is called in the order
+ * the interceptors were added, right before the request is sent, and {@link #onResponse(Request, Response)}
+ * is called in the reverse order before the response is handled.
+ * <br>An interceptor can complete a request without a network call by returning a response from
+ * {@link #onRequest(Request, okhttp3.Request.Builder) onRequest}. The remaining interceptors are skipped
+ * and only the interceptors that were called before it receive the response.
+ *
+ * <p>Responses served from the {@link ResponseCache} and requests failed by the {@link CircuitBreaker} before being sent
+ * do not pass through the interceptors. Identical GET requests may be coalesced into a single call, in which case
+ * only the headers added for the first request are sent.
+ *
+ * <p>Interceptors are called from the threads of the requester and must be thread-safe.
+ * An exception thrown by an interceptor fails the request.
+ */
+public interface RequestInterceptor {
+
+	/**
+	 * Called before the request is sent. Headers can be added through the provided builder.
+	 *
+	 * @param  request
+	 *         The request, the route is available through {@link Request#getRoute()}
+	 * @param  builder
+	 *         The builder of the HTTP request that will be sent
+	 *
+	 * @return A response completing the request without sending it, or null to continue
+	 */
+	default Response onRequest(Request<?> request, okhttp3.Request.Builder builder) {
+		return null;
+	}
+
+	/**
+	 * Called before the response is handled.
+	 *
+	 * <p>A response of a failed request has the code {@link Response#ERROR_CODE} and
+	 * provides the cause with {@link Response#getException()}.
+	 *
+	 * @param  request
+	 *         The request
+	 * @param  response
+	 *         The response
+	 *
+	 * @return The response that should be handled, or null to keep the provided response
+	 */
+	default Response onResponse(Request<?> request, Response response) {
+		return response;
+	}
+}
@@ -0,0 +1,255 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests;
+
+import be.raft.pelican.Priority;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queue of pending requests, with a sub-queue for every {@link be.raft.pelican.PteroAction#tenant(String) tenant}.
+ * <br>The requests of a tenant are ordered by {@link Priority}. Requests are promoted by one priority level for
+ * every {@link #AGING_INTERVAL} they spend in the queue, requests of the same effective priority are polled in
+ * order of arrival. The tenant to poll from is chosen by the {@link RateLimiter}.
+ */
+class RequestQueue {
+
+	static final long AGING_INTERVAL = TimeUnit.SECONDS.toMillis(5);
+
+	private final Map<String, Levels> tenants = new LinkedHashMap<>();
+	private int size = 0;
+
+	synchronized void offer(Request<?> request) {
+		request.markQueued();
+		Levels levels = tenants.computeIfAbsent(request.getTenant(), Levels::new);
+		levels.get(request).offerLast(request);
+		levels.size++;
+		size++;
+	}
+
+	synchronized void offerFirst(Request<?> request) {
+		request.markQueued();
+		Levels levels = tenants.computeIfAbsent(request.getTenant(), Levels::new);
+		levels.get(request).offerFirst(request);
+		levels.size++;
+		size++;
+	}
+
+	/**
+	 * Polls the most urgent request of a tenant.
+	 *
+	 * @param  tenant
+	 *         The tenant
+	 *
+	 * @return The request, or null if the tenant has no queued request
+	 */
+	synchronized Request<?> poll(String tenant) {
+		Levels levels = tenants.get(tenant);
+		if (levels == null) return null;
+
+		int level = levels.nextLevel(System.currentTimeMillis());
+		Request<?> request = levels.levels.get(level).pollFirst();
+		removed(levels, 1);
+		return request;
+	}
+
+	synchronized boolean contains(String tenant) {
+		return tenants.containsKey(tenant);
+	}
+
+	/**
+	 * The effective priority of the next request of a tenant, lower is more urgent.
+	 *
+	 * @param  tenant
+	 *         The tenant
+	 *
+	 * @return The effective priority, or {@link Long#MAX_VALUE} if the tenant has no queued request
+	 */
+	synchronized long rank(String tenant) {
+		Levels levels = tenants.get(tenant);
+		return levels == null ? Long.MAX_VALUE : levels.rank(System.currentTimeMillis());
+	}
+
+	/**
+	 * The request that waited the longest.
+	 *
+	 * @return The oldest request, or null if the queue is empty
+	 */
+	synchronized Request<?> peekOldest() {
+		Request<?> oldest = null;
+		for (Levels levels : tenants.values()) {
+			for (Deque<Request<?>> level : levels.levels) {
+				Request<?> head = level.peekFirst();
+				if (head != null && (oldest == null || head.getQueueTime() < oldest.getQueueTime())) oldest = head;
+			}
+		}
+		return oldest;
+	}
+
+	/**
+	 * The newest request of the lowest effective priority.
+	 *
+	 * @return The least important request, or null if the queue is empty
+	 */
+	synchronized Request<?> peekLowest() {
+		long now = System.currentTimeMillis();
+		Request<?> lowest = null;
+		for (Levels levels : tenants.values()) {
+			// the newest request of a level is the one that aged the least
+			for (Deque<Request<?>> level : levels.levels) {
+				Request<?> tail = level.peekLast();
+				if (tail != null && (lowest == null || isLower(tail, lowest, now))) lowest = tail;
+			}
+		}
+		return lowest;
+	}
+
+	/**
+	 * Whether the first request is less important than the second one.
+	 * <br>Among requests of the same effective priority, the newest is the least important.
+	 */
+	static boolean isLower(Request<?> request, Request<?> other, long now) {
+		long order = Long.compare(getEffectivePriority(request, now), getEffectivePriority(other, now));
+		return order > 0 || (order == 0 && request.getQueueTime() > other.getQueueTime());
+	}
+
+	/**
+	 * The priority of a queued request once promoted for the time it spent in the queue, lower is more urgent.
+	 *
+	 * @param  request
+	 *         The queued request
+	 * @param  now
+	 *         The current time in milliseconds
+	 *
+	 * @return The effective priority
+	 */
+	static long getEffectivePriority(Request<?> request, long now) {
+		return request.getPriority().ordinal() - (now - request.getQueueTime()) / AGING_INTERVAL;
+	}
+
+	synchronized boolean remove(Request<?> request) {
+		Levels levels = tenants.get(request.getTenant());
+		if (levels == null || !levels.get(request).removeLastOccurrence(request)) return false;
+		removed(levels, 1);
+		return true;
+	}
+
+	/**
+	 * Removes the requests that were queued before the provided time.
+	 *
+	 * @param  queuedBefore
+	 *         The time in milliseconds
+	 *
+	 * @return The removed requests
+	 */
+	synchronized List<Request<?>> removeExpired(long queuedBefore) {
+		List<Request<?>> expired = new ArrayList<>();
+		Iterator<Levels> iterator = tenants.values().iterator();
+		while (iterator.hasNext()) {
+			Levels levels = iterator.next();
+			int before = expired.size();
+			for (Deque<Request<?>> level : levels.levels) {
+				level.removeIf(request -> {
+					if (request.getQueueTime() >= queuedBefore) return false;
+					expired.add(request);
+					return true;
+				});
+			}
+
+			int count = expired.size() - before;
+			size -= count;
+			levels.size -= count;
+			if (levels.size == 0) iterator.remove();
+		}
+		return expired;
+	}
+
+	synchronized List<Request<?>> clear() {
+		List<Request<?>> removed = new ArrayList<>(size);
+		for (Levels levels : tenants.values()) {
+			for (Deque<Request<?>> level : levels.levels) removed.addAll(level);
+		}
+		tenants.clear();
+		size = 0;
+		return removed;
+	}
+
+	synchronized boolean isEmpty() {
+		return size == 0;
+	}
+
+	synchronized int size() {
+		return size;
+	}
+
+	private void removed(Levels levels, int count) {
+		size -= count;
+		levels.size -= count;
+		if (levels.size == 0) tenants.remove(levels.tenant);
+	}
+
+	/**
+	 * The requests of a single tenant, by priority.
+	 */
+	private static final class Levels {
+
+		private final String tenant;
+		private final List<Deque<Request<?>>> levels;
+		private int size = 0;
+
+		private Levels(String tenant) {
+			this.tenant = tenant;
+			Priority[] priorities = Priority.values();
+			this.levels = new ArrayList<>(priorities.length);
+			for (int i = 0; i < priorities.length; i++) levels.add(new ArrayDeque<>());
+		}
+
+		private Deque<Request<?>> get(Request<?> request) {
+			return levels.get(request.getPriority().ordinal());
+		}
+
+		private long rank(long now) {
+			return getEffectivePriority(levels.get(nextLevel(now)).peekFirst(), now);
+		}
+
+		private int nextLevel(long now) {
+			int next = -1;
+			long best = Long.MAX_VALUE;
+			long arrival = Long.MAX_VALUE;
+
+			for (int i = 0; i < levels.size(); i++) {
+				Request<?> head = levels.get(i).peekFirst();
+				if (head == null) continue;
+
+				long effective = getEffectivePriority(head, now);
+				// an aged request is promoted ahead of the requests of its new level that arrived after it
+				if (effective < best || (effective == best && head.getQueueTime() < arrival)) {
+					best = effective;
+					arrival = head.getQueueTime();
+					next = i;
+				}
+			}
+			return next;
+		}
+	}
+}
@@ -16,18 +16,38 @@
 
 package be.raft.pelican.requests;
 
+import be.raft.pelican.Priority;
 import be.raft.pelican.entities.P4J;
+import be.raft.pelican.exceptions.CircuitBreakerOpenException;
 import be.raft.pelican.exceptions.HttpException;
 import be.raft.pelican.exceptions.LoginException;
 import be.raft.pelican.utils.P4JLogger;
+import be.raft.pelican.utils.config.EndpointConfig;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.ssl.SSLHandshakeException;
 import javax.net.ssl.SSLPeerUnverifiedException;
 import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
 import okhttp3.internal.http.HttpMethod;
+import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 
 public class Requester {
@@ -43,132 +63,856 @@ public class Requester {
 
 	private static final String PTERODACTYL_API_PREFIX = "%s/api/";
 
-	private final RateLimiter rateLimiter;
+	private final List<EndpointConfig> endpoints;
+	private final List<RateLimiter> rateLimiters;
+	private final AtomicInteger nextEndpoint = new AtomicInteger();
 	private final OkHttpClient client;
+	private final ScheduledExecutorService scheduler;
 	private final String userAgent;
+	private final ResponseCache cache;
+	private final RetryPolicy retryPolicy;
+	private final RetryBudget retryBudget;
+	private final CircuitBreaker circuitBreaker;
+	private final JsonCodec codec;
+	private final MetricsListener metrics;
+	private final List<RequestInterceptor> interceptors;
+	private final HedgingPolicy hedging;
+	private final Map<Route, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+	private final Map<String, List<Request<?>>> coalesced = new HashMap<>();
+	private final Set<Execution> executions = ConcurrentHashMap.newKeySet();
+	private volatile boolean shutdown = false;
 
 	public Requester(P4J api) {
 		this.api = api;
-		this.rateLimiter = new RateLimiter(this, api);
+		this.endpoints = api.getEndpoints();
+		this.metrics = api.getMetricsListener() == null ? MetricsListener.NOOP : api.getMetricsListener();
+		List<RateLimiter> rateLimiters = new ArrayList<>(endpoints.size());
+		// every API key has its own rate limit
+		for (int i = 0; i < endpoints.size(); i++) rateLimiters.add(new RateLimiter(this, api));
+		this.rateLimiters = Collections.unmodifiableList(rateLimiters);
 		this.client = api.getHttpClient();
+		this.scheduler = api.getRateLimitPool();
 		this.userAgent = api.getUserAgent();
+		this.cache = api.getResponseCache();
+		this.retryPolicy = api.getRetryPolicy();
+		this.retryBudget = new RetryBudget(retryPolicy);
+		this.circuitBreaker = api.getCircuitBreaker();
+		this.codec = api.getJsonCodec();
+		this.interceptors = api.getInterceptors();
+		this.hedging = api.getHedgingPolicy();
+	}
+
+	MetricsListener getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * The rate limiter of the primary API key.
+	 *
+	 * @return The {@link RateLimiter}
+	 */
+	public RateLimiter getRateLimiter() {
+		return rateLimiters.get(0);
+	}
+
+	/**
+	 * The rate limiters of every API key, in the order of {@link P4J#getEndpoints()}.
+	 *
+	 * @return Immutable list of rate limiters
+	 */
+	public List<RateLimiter> getRateLimiters() {
+		return rateLimiters;
 	}
 
 	public <T> void request(Request<T> request) {
-		if (request.shouldQueue()) rateLimiter.queueRequest(request);
+		request(request, true);
+	}
+
+	private void request(Request<?> request, boolean mayBlock) {
+		if (shutdown) {
+			request.onFailure(new RejectedExecutionException("P4J has been shut down"));
+			return;
+		}
+		send(request, mayBlock);
+	}
+
+	private void send(Request<?> request) {
+		// requests sent again by the requester run on the dispatcher or the scheduler, which must never block
+		send(request, false);
+	}
+
+	private void send(Request<?> request, boolean mayBlock) {
+		if (serveFromCache(request)) return;
+		if (rejectOnOpenCircuit(request)) return;
+
+		if (request.shouldQueue()) getRateLimiter(request).queueRequest(request, mayBlock);
 		else execute(request, true);
 	}
 
-	public Long execute(Request<?> apiRequest) {
-		return execute(apiRequest, false);
+	private RateLimiter getRateLimiter(Request<?> request) {
+		return rateLimiters.get(getEndpoint(request));
+	}
+
+	private int getEndpoint(Request<?> request) {
+		if (request.getEndpoint() == -1) request.setEndpoint(selectEndpoint(request.getRoute()));
+		return request.getEndpoint();
+	}
+
+	/**
+	 * Selects the API key used to send a request.
+	 * <br>Reads go to the least loaded key, starting from a rotating index so ties are spread round-robin.
+	 * Writes always use the same key for the same resource, so they are executed in order.
+	 */
+	private int selectEndpoint(Route.CompiledRoute route) {
+		int size = endpoints.size();
+		if (size == 1) return 0;
+
+		if (route.getMethod() != Method.GET) return Math.floorMod(getResource(route).hashCode(), size);
+
+		int start = Math.floorMod(nextEndpoint.getAndIncrement(), size);
+		int selected = start;
+		int lowest = Integer.MAX_VALUE;
+		for (int i = 0; i < size; i++) {
+			int index = (start + i) % size;
+			int load = rateLimiters.get(index).getLoad(route);
+			if (load < lowest) {
+				lowest = load;
+				selected = index;
+			}
+		}
+		return selected;
+	}
+
+	private static String getResource(Route.CompiledRoute route) {
+		// e.g. client/servers/{server_id} or application/users/{user_id}
+		String path = ResponseCache.getPath(route);
+		int end = -1;
+		for (int i = 0; i < 3; i++) {
+			end = path.indexOf('/', end + 1);
+			if (end == -1) return path;
+		}
+		return path.substring(0, end);
 	}
 
-	public Long execute(Request<?> request, boolean handleOnRateLimit) {
-		return execute(request, false, handleOnRateLimit);
+	public CompletableFuture<Long> execute(Request<?> apiRequest) {
+		return execute(apiRequest, false);
 	}
 
-	public Long execute(Request<?> apiRequest, boolean retried, boolean handleOnRateLimit) {
+	/**
+	 * Dispatches the request through {@link Call#enqueue(Callback)}, the returned future is completed
+	 * from the OkHttp dispatcher once the request has been handled.
+	 *
+	 * <p>The {@link RequestInterceptor interceptors} are called before the request is sent,
+	 * and may complete it without a network call.
+	 *
+	 * <p>GET requests are coalesced with an identical request that is already in flight, unless disabled
+	 * with {@link be.raft.pelican.PteroAction#coalesce(boolean)}.
+	 *
+	 * @return Future completed with the retry-after delay if the request was rate limited, or null if it was handled
+	 */
+	public CompletableFuture<Long> execute(Request<?> apiRequest, boolean handleOnRateLimit) {
+		CompletableFuture<Long> future = new CompletableFuture<>();
+
+		okhttp3.Request request;
+		try {
+			okhttp3.Request.Builder builder = newRequest(apiRequest);
+			for (int i = 0; i < interceptors.size(); i++) {
+				Response response = interceptors.get(i).onRequest(apiRequest, builder);
+				if (response == null) continue;
+
+				Route.CompiledRoute route = apiRequest.getRoute();
+				REQUESTER_LOG.trace("Request {} {} was completed by an interceptor", route.getMethod(), route.getCompiledRoute());
+				handleResponse(apiRequest, response, i);
+				future.complete(null);
+				return future;
+			}
+			request = builder.build();
+		} catch (Exception e) {
+			apiRequest.onFailure(e);
+			future.complete(null);
+			return future;
+		}
+
+		if (rejectOnOpenCircuit(apiRequest)) {
+			future.complete(null);
+			return future;
+		}
 
 		Route.CompiledRoute route = apiRequest.getRoute();
-		Long retryAfter = rateLimiter.getRateLimit();
+		String key = getCoalescingKey(apiRequest);
+		if (key != null && joinInFlight(key, apiRequest)) {
+			REQUESTER_LOG.trace("Coalesced request {} {} with in-flight call", route.getMethod(), route.getCompiledRoute());
+			future.complete(null);
+			return future;
+		}
 
+		Long retryAfter = getRateLimiter(apiRequest).getRateLimit(route);
 		if (retryAfter > 0) {
+			releaseInFlight(key).forEach(this::send);
 			if (handleOnRateLimit) apiRequest.handleResponse(new Response(retryAfter));
-			return retryAfter;
+			future.complete(retryAfter);
+			return future;
+		}
+
+		REQUESTER_LOG.debug("Executing request {} {}", route.getMethod(), route.getCompiledRoute());
+		retryBudget.deposit();
+		long queueTime = apiRequest.getQueueTime() == 0 ? 0 : System.currentTimeMillis() - apiRequest.getQueueTime();
+		metrics.onRequestSent(route, TimeUnit.MILLISECONDS.toNanos(queueTime));
+		Execution execution = new Execution(apiRequest, request, key, handleOnRateLimit, future);
+		executions.add(execution);
+		future.whenComplete((r, e) -> executions.remove(execution));
+		execution.enqueue();
+		return future;
+	}
+
+	/**
+	 * Opens connections to every panel URL ahead of the first request, so it doesn't have to wait for the DNS lookup
+	 * and the TCP and TLS handshakes. The connections are then kept alive by the connection pool of the HTTP client.
+	 *
+	 * <p>The base URL of the panel is requested with {@code HEAD}, which doesn't count towards the rate limit of the API.
+	 *
+	 * @param  connections
+	 *         The amount of connections to open per URL
+	 *
+	 * @return Future completed once every connection attempt has finished, failed attempts are only logged
+	 */
+	public CompletableFuture<Void> warmup(int connections) {
+		Set<String> urls = new LinkedHashSet<>();
+		for (EndpointConfig endpoint : endpoints) urls.add(endpoint.getUrl());
+
+		List<CompletableFuture<Void>> attempts = new ArrayList<>();
+		for (String url : urls) {
+			okhttp3.Request request;
+			try {
+				request = new okhttp3.Request.Builder()
+						.url(url)
+						.head()
+						.header("User-Agent", userAgent)
+						.build();
+			} catch (Exception e) {
+				REQUESTER_LOG.warn("Failed to warm up connections to {}: {}", url, e.toString());
+				continue;
+			}
+
+			// concurrent calls can't share a connection, unless the panel supports HTTP/2
+			for (int i = 0; i < connections; i++) {
+				CompletableFuture<Void> attempt = new CompletableFuture<>();
+				client.newCall(request).enqueue(new Callback() {
+					@Override
+					public void onFailure(@NotNull Call call, @NotNull IOException e) {
+						REQUESTER_LOG.warn("Failed to warm up a connection to {}: {}", url, e.toString());
+						attempt.complete(null);
+					}
+
+					@Override
+					public void onResponse(@NotNull Call call, @NotNull okhttp3.Response response) {
+						response.close();
+						attempt.complete(null);
+					}
+				});
+				attempts.add(attempt);
+			}
 		}
+		return CompletableFuture.allOf(attempts.toArray(CompletableFuture<?>[]::new));
+	}
+
+	/**
+	 * Stops accepting new requests, requests that were already accepted are still executed.
+	 */
+	public void shutdown() {
+		shutdown = true;
+	}
+
+	public boolean isShutdown() {
+		return shutdown;
+	}
 
+	/**
+	 * Whether every accepted request has been completed.
+	 *
+	 * @return True, if no request is queued or in flight
+	 */
+	public boolean isIdle() {
+		if (!executions.isEmpty()) return false;
+		for (RateLimiter rateLimiter : rateLimiters) if (!rateLimiter.isIdle()) return false;
+		return true;
+	}
+
+	/**
+	 * Fails every queued request with a {@link java.util.concurrent.CancellationException}.
+	 *
+	 * @return The amount of cancelled requests
+	 */
+	public int cancelQueued() {
+		int cancelled = 0;
+		for (RateLimiter rateLimiter : rateLimiters) {
+			for (Request<?> request : rateLimiter.drainQueue()) {
+				cancel(request);
+				cancelled++;
+			}
+		}
+		return cancelled;
+	}
+
+	/**
+	 * Aborts every in-flight request and fails it with a {@link java.util.concurrent.CancellationException}.
+	 *
+	 * @return The amount of aborted requests
+	 */
+	public int abortInFlight() {
+		int aborted = 0;
+		for (Execution execution : executions) aborted += execution.abort();
+		return aborted;
+	}
+
+	private static void cancel(Request<?> request) {
+		request.cancel();
+		// completes the request with a CancellationException, unless it was already completed
+		request.isSkipped();
+	}
+
+	private okhttp3.Request.Builder newRequest(Request<?> apiRequest) {
+		EndpointConfig endpoint = endpoints.get(getEndpoint(apiRequest));
+		return newRequest(endpoint, apiRequest.getRoute(), apiRequest.getRequestBody());
+	}
+
+	private okhttp3.Request.Builder newRequest(EndpointConfig endpoint, Route.CompiledRoute route, RequestBody body) {
 		okhttp3.Request.Builder builder = new okhttp3.Request.Builder();
 
-		if (api.getApplicationUrl() == null || api.getApplicationUrl().isEmpty())
+		if (endpoint.getUrl() == null || endpoint.getUrl().isEmpty())
 			throw new HttpException("No Pterodactyl URL was defined.");
-		String applicationUrl = api.getApplicationUrl();
+		String applicationUrl = endpoint.getUrl();
 		if (applicationUrl.endsWith("/")) applicationUrl = applicationUrl.substring(0, applicationUrl.length() - 1);
-		String url = String.format(PTERODACTYL_API_PREFIX, applicationUrl)
-				+ apiRequest.getRoute().getCompiledRoute();
+		String url = String.format(PTERODACTYL_API_PREFIX, applicationUrl) + route.getCompiledRoute();
 
 		builder.url(url);
 		String method = route.getMethod().toString();
-		if (apiRequest.getRequestBody() != null) builder.method(method, apiRequest.getRequestBody());
+		if (body instanceof JsonRequestBody) body = ((JsonRequestBody) body).encode(codec);
+		if (body != null) builder.method(method, body);
 		else if (HttpMethod.requiresRequestBody(method)) builder.method(method, EMPTY_BODY);
 		else builder.method(method, null);
 
 		builder.header("Accept", "application/vnd.pterodactyl.v1+json").header("User-Agent", userAgent);
 
-		if (api.getToken() == null || api.getToken().isEmpty())
+		if (endpoint.getToken() == null || endpoint.getToken().isEmpty())
 			throw new LoginException("No authorization token was defined.");
-		builder.header("Authorization", "Bearer " + api.getToken());
+		builder.header("Authorization", "Bearer " + endpoint.getToken());
+
+		return builder;
+	}
 
-		okhttp3.Request request = builder.build();
+	private Response createResponse(okhttp3.Response response, long retryAfter) {
+		Response created = new Response(response, retryAfter);
+		created.setCodec(codec);
+		return created;
+	}
 
-		okhttp3.Response[] responses = new okhttp3.Response[4];
-		okhttp3.Response lastResponse = null;
+	private Response createResponse(int code, String body) {
+		Response created = new Response(code, body);
+		created.setCodec(codec);
+		return created;
+	}
 
+	/**
+	 * Passes the response through the first {@code intercepted} interceptors in reverse order, and handles it.
+	 */
+	private void handleResponse(Request<?> request, Response response, int intercepted) {
 		try {
-			REQUESTER_LOG.debug("Executing request {} {}", route.getMethod(), route.getCompiledRoute());
-			int attempt = 0;
-			do {
-				if (apiRequest.isSkipped()) return null;
+			for (int i = intercepted - 1; i >= 0; i--) {
+				Response replaced = interceptors.get(i).onResponse(request, response);
+				if (replaced != null) response = replaced;
+			}
+			request.handleResponse(response);
+		} catch (Exception e) {
+			// the call was aborted while the response was being read
+			if (request.isSkipped()) return;
+			if (e.getMessage() == null) REQUESTER_LOG.error("There was an exception while handling a request");
+			else REQUESTER_LOG.error("{}", e.getMessage());
+			request.onFailure(e);
+		}
+	}
 
-				Call call = client.newCall(request);
-				lastResponse = call.execute();
-				responses[attempt] = lastResponse;
+	/**
+	 * Completes the request with a cached response if the {@link ResponseCache} has one,
+	 * a stale response is served while a fresh one is requested in the background.
+	 *
+	 * @return True, if the request was handled from the cache
+	 */
+	private boolean serveFromCache(Request<?> request) {
+		Route.CompiledRoute route = request.getRoute();
+		if (cache == null || !request.isUsingResponseCache() || !isCacheable(route)) return false;
+
+		ResponseCache.Entry entry = cache.get(getEndpoint(request), route);
+		if (entry == null) return false;
+		if (request.isSkipped()) return true;
+
+		REQUESTER_LOG.trace("Serving request {} {} from cache", route.getMethod(), route.getCompiledRoute());
+		try {
+			request.handleResponse(createResponse(200, entry.getBody()));
+		} catch (Exception e) {
+			if (e.getMessage() == null) REQUESTER_LOG.error("There was an exception while handling a request");
+			else REQUESTER_LOG.error("{}", e.getMessage());
+			request.onFailure(e);
+		}
 
-				if (lastResponse.code() < 500) break;
+		if (entry.isStale() && entry.startRevalidation()) revalidate(request.getEndpoint(), route);
+		return true;
+	}
 
-				attempt++;
-				REQUESTER_LOG.debug(
-						"Requesting {} -> {} returned status {}... retrying (attempt {})",
-						route.getMethod(),
-						route.getCompiledRoute(),
-						lastResponse.code(),
-						attempt);
-				try {
-					Thread.sleep(50L * attempt);
-				} catch (InterruptedException ignored) {
-				}
-			} while (attempt < 3 && lastResponse.code() >= 500);
+	private void revalidate(int endpoint, Route.CompiledRoute route) {
+		REQUESTER_LOG.debug("Revalidating stale response of {} {}", route.getMethod(), route.getCompiledRoute());
+		PteroActionImpl<Void> action = new PteroActionImpl<>(api, route);
+		action.priority(Priority.LOW).useResponseCache(false);
+		Request<Void> request = new Request<>(
+				action,
+				v -> {},
+				e -> REQUESTER_LOG.debug("Failed to revalidate {}: {}", route.getCompiledRoute(), e.toString()),
+				route,
+				null,
+				true,
+				0);
+		// the fresh response must replace the entry of the same endpoint
+		request.setEndpoint(endpoint);
+		request(request, false);
+	}
 
-			REQUESTER_LOG.trace(
-					"Finished Request {} {} with code {}",
-					route.getMethod(),
-					lastResponse.request().url(),
-					lastResponse.code());
+	private static boolean isCacheable(Route.CompiledRoute route) {
+		// single-use URLs and tokens must be requested every time, whatever the cache is configured with
+		return route.getMethod() == Method.GET && route.getBaseRoute().isShareable();
+	}
 
-			if (lastResponse.code() >= 500) {
-				// epic fucking fail
-				Response response = new Response(lastResponse, -1);
-				apiRequest.handleResponse(response);
-				return null;
-			}
+	private void invalidateCache(Route.CompiledRoute route, Response response) {
+		if (cache == null || !response.isOk() || route.getMethod() == Method.GET) return;
+		cache.invalidate(route);
+	}
 
-			retryAfter = rateLimiter.handleResponse(apiRequest, lastResponse);
+	private void updateCache(Request<?> request, Response response, long requestTime) {
+		Route.CompiledRoute route = request.getRoute();
+		if (cache == null || !response.isOk() || !isCacheable(route)) return;
+		// called after the handlers, so the body has usually been decoded already
+		if (cache.isCacheable(route)) cache.put(getEndpoint(request), route, response.getRawObject(), requestTime);
+	}
 
-			if (retryAfter == null) apiRequest.handleResponse(new Response(lastResponse, -1));
-			else if (handleOnRateLimit) apiRequest.handleResponse(new Response(lastResponse, retryAfter));
+	/**
+	 * Fails the request without sending it while the {@link CircuitBreaker} is not closed.
+	 *
+	 * @return True, if the request was rejected
+	 */
+	private boolean rejectOnOpenCircuit(Request<?> request) {
+		if (circuitBreaker == null || circuitBreaker.isClosed()) return false;
+		if (!request.isSkipped()) request.onFailure(new CircuitBreakerOpenException(circuitBreaker.getRetryAfter()));
+		return true;
+	}
 
-			return retryAfter;
-		} catch (SocketTimeoutException e) {
-			if (!retried) return execute(apiRequest, true, handleOnRateLimit);
-			REQUESTER_LOG.error("Requester timed out while executing a request {}", e.getMessage());
-			apiRequest.handleResponse(new Response(lastResponse, e));
-			return null;
+	private void recordFailure() {
+		if (circuitBreaker != null && circuitBreaker.onFailure()) scheduleProbe();
+	}
+
+	private void recordSuccess() {
+		if (circuitBreaker != null) circuitBreaker.onSuccess();
+	}
+
+	private void scheduleProbe() {
+		REQUESTER_LOG.warn(
+				"Circuit breaker opened, failing requests for the next {}ms", circuitBreaker.getOpenDuration());
+		scheduler.schedule(this::probe, circuitBreaker.getOpenDuration(), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Checks whether every endpoint is reachable again, the circuit only closes once all of them responded.
+	 */
+	private void probe() {
+		if (!circuitBreaker.startProbe()) return;
+
+		List<okhttp3.Request> requests = new ArrayList<>(endpoints.size());
+		try {
+			for (EndpointConfig endpoint : endpoints)
+				requests.add(newRequest(endpoint, Route.Accounts.GET_ACCOUNT.compile(), null)
+						.build());
 		} catch (Exception e) {
-			if (!retried && isRetry(e)) return execute(apiRequest, true, handleOnRateLimit);
-			if (e.getMessage() == null) REQUESTER_LOG.error("There was an exception while executing a request");
-			else REQUESTER_LOG.error("{}", e.getMessage());
-			apiRequest.handleResponse(new Response(lastResponse, e));
+			if (circuitBreaker.onProbe(false)) scheduleProbe();
+			return;
+		}
+
+		AtomicInteger remaining = new AtomicInteger(requests.size());
+		AtomicBoolean healthy = new AtomicBoolean(true);
+		for (okhttp3.Request request : requests) {
+			client.newCall(request).enqueue(new Callback() {
+				@Override
+				public void onFailure(@NotNull Call call, @NotNull IOException e) {
+					REQUESTER_LOG.debug("Circuit breaker probe of {} failed: {}", call.request().url(), e.toString());
+					complete(false);
+				}
+
+				@Override
+				public void onResponse(@NotNull Call call, @NotNull okhttp3.Response response) {
+					response.close();
+					// any response from the panel itself means it is reachable again
+					complete(response.code() < 500);
+				}
+
+				private void complete(boolean success) {
+					if (!success) healthy.set(false);
+					if (remaining.decrementAndGet() == 0 && circuitBreaker.onProbe(healthy.get())) scheduleProbe();
+				}
+			});
+		}
+	}
+
+	private String getCoalescingKey(Request<?> request) {
+		Route.CompiledRoute route = request.getRoute();
+		// mutating requests must always reach the panel, and single-use URLs can't be shared
+		if (!request.isCoalescing() || route.getMethod() != Method.GET || !route.getBaseRoute().isShareable())
 			return null;
-		} finally {
-			for (okhttp3.Response r : responses) {
-				if (r == null) break;
-				r.close();
+		// other keys may point to another panel or have other permissions
+		return getEndpoint(request) + " " + route.getCompiledRoute();
+	}
+
+	/**
+	 * Attaches the request to the in-flight call for the given key,
+	 * or registers a new in-flight call if there is none.
+	 *
+	 * @return True, if the request was attached to an existing call
+	 */
+	private boolean joinInFlight(String key, Request<?> request) {
+		synchronized (coalesced) {
+			List<Request<?>> followers = coalesced.get(key);
+			if (followers == null) {
+				coalesced.put(key, new ArrayList<>());
+				return false;
 			}
+			followers.add(request);
+			return true;
+		}
+	}
+
+	private List<Request<?>> releaseInFlight(String key) {
+		if (key == null) return Collections.emptyList();
+		synchronized (coalesced) {
+			List<Request<?>> followers = coalesced.remove(key);
+			return followers == null ? Collections.emptyList() : followers;
 		}
 	}
 
 	private static boolean isRetry(Throwable e) {
 		return e instanceof SocketException // Socket couldn't be created or access failed
 				|| e instanceof SocketTimeoutException // Connection timed out
+				|| e instanceof UnknownHostException // DNS lookup failed
 				|| e instanceof SSLPeerUnverifiedException; // SSL Certificate was wrong
 	}
+
+	private static boolean isUnsent(Throwable e) {
+		// the connection failed before the request could be written
+		return e instanceof ConnectException
+				|| e instanceof NoRouteToHostException
+				|| e instanceof UnknownHostException
+				|| e instanceof SSLHandshakeException
+				|| e instanceof SSLPeerUnverifiedException;
+	}
+
+	private static long getRetryAfter(okhttp3.Response response) {
+		String header = response.header("Retry-After");
+		if (header == null) return 0;
+		try {
+			return TimeUnit.SECONDS.toMillis(Long.parseLong(header.trim()));
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	private class Execution implements Callback {
+
+		private final Request<?> apiRequest;
+		private final okhttp3.Request request;
+		private final String key;
+		private final boolean handleOnRateLimit;
+		private final CompletableFuture<Long> future;
+
+		private final long requestTime = System.currentTimeMillis();
+		private long sentAt;
+		private int attempt = 0;
+
+		private Execution(
+				Request<?> apiRequest,
+				okhttp3.Request request,
+				String key,
+				boolean handleOnRateLimit,
+				CompletableFuture<Long> future) {
+			this.apiRequest = apiRequest;
+			this.request = request;
+			this.key = key;
+			this.handleOnRateLimit = handleOnRateLimit;
+			this.future = future;
+		}
+
+		private void enqueue() {
+			if (apiRequest.isSkipped()) {
+				// the coalesced requests are still waiting for a response, let one of them take over
+				releaseInFlight(key).forEach(Requester.this::send);
+				future.complete(null);
+				return;
+			}
+
+			sentAt = System.nanoTime();
+			new Attempt().start();
+		}
+
+		private int abort() {
+			List<Request<?>> followers = releaseInFlight(key);
+			cancel(apiRequest);
+			followers.forEach(Requester::cancel);
+			future.complete(null);
+			return 1 + followers.size();
+		}
+
+		/**
+		 * Whether the call was aborted on purpose, rather than by the call timeout of the client.
+		 */
+		/**
+		 * Whether the call timed out, as opposed to being cancelled by the user.
+		 * <br>This includes the read and call timeouts of the HTTP client,
+		 * and the {@link be.raft.pelican.PteroAction#deadline(long) deadline} mapped onto the call timeout.
+		 */
+		private boolean isTimeout(IOException e) {
+			return e instanceof InterruptedIOException && !apiRequest.isCancelled();
+		}
+
+		private boolean isAborted() {
+			long deadline = apiRequest.getDeadline();
+			return apiRequest.isCancelled() || (deadline > 0 && deadline <= System.currentTimeMillis());
+		}
+
+		private void applyDeadline(Call call) {
+			long deadline = apiRequest.getDeadline();
+			if (deadline <= 0) return;
+
+			// abort the call once the deadline has passed, unless the call timeout of the client is shorter
+			long remaining = TimeUnit.MILLISECONDS.toNanos(Math.max(deadline - System.currentTimeMillis(), 1));
+			long callTimeout = call.timeout().timeoutNanos();
+			if (callTimeout == 0 || callTimeout > remaining) call.timeout().timeout(remaining, TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public void onFailure(@NotNull Call call, @NotNull IOException e) {
+			long networkTime = System.nanoTime() - sentAt;
+			metrics.onRequestFailed(apiRequest.getRoute(), e, networkTime);
+			if (isTimeout(e)) recordFailure();
+			if (isAborted()) {
+				// aborted by Request#cancel() or once the deadline has passed
+				Route.CompiledRoute route = apiRequest.getRoute();
+				REQUESTER_LOG.debug("Aborted request {} {}", route.getMethod(), route.getCompiledRoute());
+				if (!apiRequest.isSkipped()) apiRequest.onTimeout();
+				releaseInFlight(key).forEach(Requester.this::send);
+				future.complete(null);
+				return;
+			}
+
+			getRateLimiter(apiRequest).onSample(apiRequest.getRoute().getBaseRoute(), networkTime, true);
+			if (isRetry(e)) {
+				if (!isTimeout(e)) recordFailure();
+				if (retry(!isUnsent(e), 0, e.toString())) return;
+			}
+
+			if (e instanceof SocketTimeoutException)
+				REQUESTER_LOG.error("Requester timed out while executing a request {}", e.getMessage());
+			else if (e.getMessage() == null) REQUESTER_LOG.error("There was an exception while executing a request");
+			else REQUESTER_LOG.error("{}", e.getMessage());
+
+			try {
+				Response response = new Response(null, e);
+				handle(response);
+				handleFollowers(releaseInFlight(key), response);
+			} finally {
+				future.complete(null);
+			}
+		}
+
+		@Override
+		public void onResponse(@NotNull Call call, @NotNull okhttp3.Response response) {
+			Route.CompiledRoute route = apiRequest.getRoute();
+			long networkTime = System.nanoTime() - sentAt;
+			metrics.onResponse(route, response.code(), networkTime);
+			boolean overloaded = response.code() >= 500 || response.code() == 429;
+			getRateLimiter(apiRequest).onSample(route.getBaseRoute(), networkTime, overloaded);
+			if (response.code() >= 500) recordFailure();
+			else recordSuccess();
+
+			if (response.code() >= 500 && retry(true, getRetryAfter(response), "status " + response.code())) {
+				response.close();
+				return;
+			}
+
+			Long retryAfter = null;
+			List<Request<?>> followers = releaseInFlight(key);
+			try (response) {
+				REQUESTER_LOG.trace(
+						"Finished Request {} {} with code {}",
+						route.getMethod(),
+						response.request().url(),
+						response.code());
+
+				if (response.code() >= 500) {
+					// epic fucking fail
+					Response failure = createResponse(response, -1);
+					handle(failure);
+					handleFollowers(followers, failure);
+					return;
+				}
+
+				retryAfter = getRateLimiter(apiRequest).handleResponse(apiRequest, response);
+
+				if (retryAfter != null) {
+					metrics.onRateLimited(route, retryAfter);
+					if (handleOnRateLimit) handle(createResponse(response, retryAfter));
+					followers.forEach(Requester.this::send);
+					return;
+				}
+
+				Response success = createResponse(response, -1);
+				// read before the handlers can modify the decoded JSON, coalesced requests decode their own copy
+				if (!followers.isEmpty()) success.getRawObject();
+				invalidateCache(route, success);
+				long handleStart = System.nanoTime();
+				handle(success);
+				metrics.onResponseHandled(route, System.nanoTime() - handleStart);
+				handleFollowers(followers, success);
+				updateCache(apiRequest, success, requestTime);
+			} finally {
+				future.complete(retryAfter);
+			}
+		}
+
+		/**
+		 * Schedules the next attempt if allowed by the {@link RetryPolicy} and the {@link RetryBudget}.
+		 *
+		 * @return True, if a retry was scheduled
+		 */
+		private boolean retry(boolean sent, long retryAfter, String reason) {
+			Route.CompiledRoute route = apiRequest.getRoute();
+			if (attempt + 1 >= retryPolicy.getMaxAttempts()) return false;
+			if (circuitBreaker != null && !circuitBreaker.isClosed()) return false;
+			// a non-idempotent request that reached the panel may already have been applied
+			if (sent && !retryPolicy.isIdempotent(route.getMethod())) return false;
+			if (!retryBudget.withdraw()) {
+				REQUESTER_LOG.debug("Retry budget exhausted, not retrying {} {}", route.getMethod(), route.getCompiledRoute());
+				return false;
+			}
+
+			attempt++;
+			long delay = retryPolicy.getDelay(attempt, retryAfter);
+			REQUESTER_LOG.debug(
+					"Requesting {} -> {} failed with {}... retrying in {}ms (attempt {})",
+					route.getMethod(),
+					route.getCompiledRoute(),
+					reason,
+					delay,
+					attempt);
+			metrics.onRetry(route, attempt, delay);
+			scheduler.schedule(this::enqueue, delay, TimeUnit.MILLISECONDS);
+			return true;
+		}
+
+		/**
+		 * A single attempt of the execution, which sends a duplicate of the call if it is slower than usual
+		 * and the route is hedged by the {@link HedgingPolicy}. Only the first outcome is passed to the execution.
+		 */
+		private class Attempt {
+
+			private final List<Call> calls = new ArrayList<>(2);
+			private final AtomicBoolean answered = new AtomicBoolean();
+			private final AtomicInteger running = new AtomicInteger();
+			private final LatencyHistogram latency;
+			private ScheduledFuture<?> hedge;
+
+			private Attempt() {
+				Route route = apiRequest.getRoute().getBaseRoute();
+				this.latency = hedging != null && hedging.isHedged(route)
+						? latencies.computeIfAbsent(route, r -> new LatencyHistogram())
+						: null;
+			}
+
+			private void start() {
+				send();
+
+				if (latency == null || latency.getCount() < hedging.getMinSamples()) return;
+				long delay = Math.max(hedging.getMinDelay(), latency.getPercentile(hedging.getPercentile()) / 1000);
+				synchronized (this) {
+					if (!answered.get()) hedge = scheduler.schedule(this::hedge, delay, TimeUnit.MILLISECONDS);
+				}
+			}
+
+			private void hedge() {
+				if (answered.get() || apiRequest.isCancelled()) return;
+				// duplicates use the rate limit budget, and are not sent when it is running low
+				Route.CompiledRoute route = apiRequest.getRoute();
+				if (!getRateLimiter(apiRequest).acquireHedge(route, hedging.getMinBudget())) return;
+
+				long delay = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentAt);
+				REQUESTER_LOG.debug("Hedging request {} {} after {}ms", route.getMethod(), route.getCompiledRoute(), delay);
+				metrics.onRequestHedged(route, delay);
+				send();
+			}
+
+			private void send() {
+				Call call = client.newCall(request);
+				applyDeadline(call);
+				boolean primary;
+				synchronized (this) {
+					// the request was answered while the duplicate was prepared
+					if (answered.get()) return;
+					primary = calls.isEmpty();
+					running.incrementAndGet();
+					calls.add(call);
+				}
+				// every call is registered, so cancelling the request aborts the duplicate too
+				if (primary) apiRequest.setCall(call);
+				else apiRequest.addCall(call);
+
+				long start = System.nanoTime();
+				call.enqueue(new Callback() {
+					@Override
+					public void onFailure(@NotNull Call call, @NotNull IOException e) {
+						int remaining = running.decrementAndGet();
+						// keep waiting for the other call, unless the request itself was aborted
+						if (!isAborted() && remaining > 0 && !answered.get()) return;
+						if (answer(call)) Execution.this.onFailure(call, e);
+					}
+
+					@Override
+					public void onResponse(@NotNull Call call, @NotNull okhttp3.Response response) {
+						running.decrementAndGet();
+						if (!answer(call)) {
+							response.close();
+							return;
+						}
+						if (latency != null && response.code() < 500)
+							latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+						Execution.this.onResponse(call, response);
+					}
+				});
+			}
+
+			private boolean answer(Call winner) {
+				if (!answered.compareAndSet(false, true)) return false;
+				List<Call> others;
+				synchronized (this) {
+					if (hedge != null) hedge.cancel(false);
+					others = new ArrayList<>(calls);
+				}
+				for (Call call : others) {
+					if (call != winner) call.cancel();
+				}
+				return true;
+			}
+		}
+
+		private void handle(Response response) {
+			handleResponse(apiRequest, response, interceptors.size());
+		}
+
+		private void handleFollowers(List<Request<?>> followers, Response response) {
+			for (Request<?> follower : followers) handleResponse(follower, response.copy(), interceptors.size());
+		}
+	}
 }
@@ -16,9 +16,16 @@
 
 package be.raft.pelican.requests;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
@@ -26,11 +33,18 @@ public class Response {
 
 	public static final int ERROR_CODE = -1;
 
+	private static final int MIN_BUFFER_SIZE = 512;
+	private static final int MAX_BUFFER_SIZE = 64 * 1024;
+
 	private final int code;
 	private final long retryAfter;
-	private final InputStream body;
+	private final ResponseBody body;
 	private final okhttp3.Response rawResponse;
 	private Exception exception;
+	private JsonCodec codec = JsonCodec.getDefault();
+	// the body is kept once decoded, so a response can be shared by coalesced requests
+	private String rawObject;
+	private Object decoded;
 
 	public Response(okhttp3.Response response, Exception exception) {
 		this(response, response != null ? response.code() : ERROR_CODE, -1);
@@ -41,9 +55,7 @@ public class Response {
 		this.code = code;
 		this.retryAfter = retryAfter;
 		this.rawResponse = response;
-
-		if (response == null) this.body = null;
-		else body = response.body().byteStream();
+		this.body = response == null ? null : response.body();
 	}
 
 	public Response(long retryAfter) {
@@ -54,28 +66,53 @@ public class Response {
 		this(response, response.code(), retryAfter);
 	}
 
-	public boolean isEmpty() {
+	public Response(int code, String rawObject) {
+		this(null, code, -1);
+		this.rawObject = rawObject;
+	}
+
+	/**
+	 * Creates a response with the same body, which decodes its own JSON.
+	 * <br>Used for coalesced requests, so the handler of one request can't modify the JSON of the others.
+	 *
+	 * @return The copy
+	 */
+	synchronized Response copy() {
+		Response copy = new Response(rawResponse, code, retryAfter);
+		copy.exception = exception;
+		copy.codec = codec;
+		copy.rawObject = getRawObject();
+		return copy;
+	}
+
+	public synchronized boolean isEmpty() {
+		if (rawObject != null) return rawObject.isEmpty();
+		if (decoded != null) return false;
 		if (body == null) return true;
 
 		try {
-			return body.read(new byte[0]) == -1;
+			// only fills the buffer of the source, the body can still be decoded afterwards
+			return body.source().exhausted();
 		} catch (IOException ex) {
 			ex.printStackTrace();
 		}
 		return true;
 	}
 
-	public String getRawObject() {
-		ByteArrayOutputStream result = new ByteArrayOutputStream();
-		byte[] buffer = new byte[1024];
+	public synchronized String getRawObject() {
+		if (rawObject == null) rawObject = decoded != null ? decoded.toString() : readBody();
+		return rawObject;
+	}
+
+	private String readBody() {
+		if (body == null) return "";
+
 		try {
-			for (int length; (length = body.read(buffer)) != -1; ) {
-				result.write(buffer, 0, length);
-			}
+			return body.string();
 		} catch (IOException ex) {
 			ex.printStackTrace();
 		}
-		return result.toString();
+		return "";
 	}
 
 	public long getRetryAfter() {
@@ -90,12 +127,53 @@ public class Response {
 		return this.rawResponse;
 	}
 
-	public JSONObject getObject() {
-		return new JSONObject(getRawObject());
+	public void setCodec(JsonCodec codec) {
+		this.codec = codec == null ? JsonCodec.getDefault() : codec;
+	}
+
+	public synchronized JSONObject getObject() {
+		if (decoded instanceof JSONObject) return (JSONObject) decoded;
+		JSONObject object = isStreamable() ? decode(codec::decodeObject) : codec.decodeObject(getRawObject());
+		decoded = object;
+		return object;
+	}
+
+	public synchronized JSONArray getArray() {
+		if (decoded instanceof JSONArray) return (JSONArray) decoded;
+		JSONArray array = isStreamable() ? decode(codec::decodeArray) : codec.decodeArray(getRawObject());
+		decoded = array;
+		return array;
+	}
+
+	private <T> T decode(Function<Reader, T> decoder) {
+		// peeking leaves the bytes in the source, so an error page that isn't JSON can still be read as a string
+		BufferedSource source = body.source();
+		T result;
+		try {
+			result = decoder.apply(getReader(source.peek()));
+		} catch (RuntimeException ex) {
+			rawObject = readBody();
+			throw ex;
+		}
+		source.getBuffer().clear();
+		return result;
+	}
+
+	// decode straight from the body source when it hasn't been read yet, instead of copying it into a string first
+	private boolean isStreamable() {
+		return rawObject == null && decoded == null && body != null;
+	}
+
+	private Reader getReader(BufferedSource source) {
+		MediaType type = body.contentType();
+		Charset charset = type == null ? StandardCharsets.UTF_8 : type.charset(StandardCharsets.UTF_8);
+		return new BufferedReader(new InputStreamReader(source.inputStream(), charset), getBufferSize());
 	}
 
-	public JSONArray getArray() {
-		return new JSONArray(getRawObject());
+	private int getBufferSize() {
+		long length = body.contentLength();
+		if (length < 0) return 8192;
+		return (int) Math.max(MIN_BUFFER_SIZE, Math.min(length, MAX_BUFFER_SIZE));
 	}
 
 	public boolean isOk() {
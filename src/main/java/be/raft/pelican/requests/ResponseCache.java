@@ -0,0 +1,168 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests;
+
+/**
+ * Cache for the responses of GET requests, configured with
+ * {@link be.raft.pelican.PteroBuilder#setResponseCache(ResponseCache)}.
+ *
+ * <p>P4J looks up cacheable requests before they are queued, and completes them without contacting the panel
+ * when a cached response is found. Responses of successful GET requests are stored with {@link #put(int, Route.CompiledRoute, String, long)},
+ * and every successful request that modifies the panel {@link #invalidate(Route.CompiledRoute) invalidates} the responses
+ * of the same resource path. Routes that return single-use URLs or tokens are never looked up nor stored,
+ * see {@link Route#isShareable()}.
+ *
+ * <p>Responses are cached per endpoint, since {@link be.raft.pelican.PteroBuilder#addEndpoint(String, String) additional endpoints}
+ * may point to another panel or use an API key with other permissions. An endpoint is identified by its index
+ * in {@link be.raft.pelican.entities.P4J#getEndpoints()}.
+ *
+ * <p>Implementations must be thread-safe.
+ *
+ * @see LruResponseCache
+ */
+public interface ResponseCache {
+
+	/**
+	 * Whether responses of the provided route should be cached.
+	 *
+	 * @param  route
+	 *         The GET route
+	 *
+	 * @return True, if the response should be stored
+	 */
+	boolean isCacheable(Route.CompiledRoute route);
+
+	/**
+	 * Retrieves the cached response for the provided route.
+	 *
+	 * @param  endpoint
+	 *         The index of the endpoint the request would be sent to
+	 * @param  route
+	 *         The GET route
+	 *
+	 * @return The cached entry, or null if there is no usable entry
+	 */
+	Entry get(int endpoint, Route.CompiledRoute route);
+
+	/**
+	 * Stores the response body for the provided route.
+	 * <br>Implementations should ignore responses of requests that were sent before an overlapping invalidation,
+	 * since they could contain data from before the modification.
+	 *
+	 * @param endpoint
+	 *        The index of the endpoint the request was sent to
+	 * @param route
+	 *        The GET route
+	 * @param body
+	 *        The raw response body
+	 * @param requestTime
+	 *        Millisecond timestamp at which the request was sent
+	 */
+	void put(int endpoint, Route.CompiledRoute route, String body, long requestTime);
+
+	/**
+	 * Invalidates every cached response related to the resource modified by the provided route, for every endpoint.
+	 * <br>This includes the resource itself, its parents (such as lists) and its children.
+	 *
+	 * @param route
+	 *        The route of the successful modification
+	 */
+	void invalidate(Route.CompiledRoute route);
+
+	/**
+	 * Removes every cached response.
+	 */
+	void clear();
+
+	/**
+	 * Returns the path of the route, without its query parameters.
+	 *
+	 * @param  route
+	 *         The route
+	 *
+	 * @return The resource path
+	 */
+	static String getPath(Route.CompiledRoute route) {
+		String compiled = route.getCompiledRoute();
+		int query = compiled.indexOf('?');
+		return query == -1 ? compiled : compiled.substring(0, query);
+	}
+
+	/**
+	 * A cached response.
+	 */
+	final class Entry {
+
+		private final String body;
+		private final long expiresAt;
+		private final long staleUntil;
+		private volatile boolean revalidating = false;
+
+		public Entry(String body, long expiresAt, long staleUntil) {
+			this.body = body;
+			this.expiresAt = expiresAt;
+			this.staleUntil = staleUntil;
+		}
+
+		/**
+		 * The raw response body.
+		 *
+		 * @return The body
+		 */
+		public String getBody() {
+			return body;
+		}
+
+		/**
+		 * Millisecond timestamp after which this entry is stale and should be revalidated.
+		 *
+		 * @return The expiration timestamp
+		 */
+		public long getExpiresAt() {
+			return expiresAt;
+		}
+
+		/**
+		 * Millisecond timestamp after which this entry can't be served anymore.
+		 *
+		 * @return The stale timestamp
+		 */
+		public long getStaleUntil() {
+			return staleUntil;
+		}
+
+		/**
+		 * Whether this entry has expired, but can still be served while it is refreshed in the background.
+		 *
+		 * @return True, if the entry is stale
+		 */
+		public boolean isStale() {
+			return System.currentTimeMillis() >= expiresAt;
+		}
+
+		/**
+		 * Marks this entry as being revalidated.
+		 *
+		 * @return True, if the caller should revalidate this entry, false if a revalidation is already running
+		 */
+		public synchronized boolean startRevalidation() {
+			if (revalidating) return false;
+			revalidating = true;
+			return true;
+		}
+	}
+}
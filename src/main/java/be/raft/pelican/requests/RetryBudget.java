@@ -0,0 +1,43 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests;
+
+/**
+ * Token bucket limiting the amount of retries compared to the amount of requests.
+ */
+final class RetryBudget {
+
+	private final double ratio;
+	private final double reserve;
+	private double balance;
+
+	RetryBudget(RetryPolicy policy) {
+		this.ratio = policy.getBudgetRatio();
+		this.reserve = policy.getBudgetReserve();
+		this.balance = reserve;
+	}
+
+	synchronized void deposit() {
+		balance = Math.min(reserve, balance + ratio);
+	}
+
+	synchronized boolean withdraw() {
+		if (balance < 1) return false;
+		balance--;
+		return true;
+	}
+}
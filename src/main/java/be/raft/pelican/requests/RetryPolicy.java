@@ -0,0 +1,254 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests;
+
+import be.raft.pelican.utils.Checks;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Describes how failed requests are retried, configured with {@link be.raft.pelican.PteroBuilder#setRetryPolicy(RetryPolicy)}.
+ *
+ * <p>Requests are retried when the panel responds with a 5xx status code, or when the connection fails.
+ * Retries are scheduled on the {@link be.raft.pelican.PteroBuilder#setRateLimitPool(java.util.concurrent.ScheduledExecutorService) rate limit pool}
+ * with an exponential backoff, they never block a thread while waiting.
+ *
+ * <p>Only requests using an {@link #setIdempotent(Method, boolean) idempotent} method are retried once they reached the panel,
+ * other requests (such as creating a server or a backup) are only retried if they were never sent.
+ * All retries are limited by a retry budget, which prevents retries from multiplying the load on a panel that is already failing.
+ *
+ * <h2>Example</h2>
+ * <pre>{@code
+ * RetryPolicy policy = RetryPolicy.create()
+ *         .setMaxAttempts(5)
+ *         .setBackoff(200, 10_000, TimeUnit.MILLISECONDS)
+ *         .setRetryBudget(0.1, 5);
+ * }</pre>
+ */
+public class RetryPolicy {
+
+	private int maxAttempts = 3;
+	private long baseDelay = 100;
+	private long maxDelay = 10_000;
+	private double jitter = 0.5;
+	private boolean respectRetryAfter = true;
+	private double budgetRatio = 0.2;
+	private int budgetReserve = 10;
+	private final Set<Method> idempotent = EnumSet.of(Method.GET, Method.PUT, Method.DELETE);
+
+	/**
+	 * Creates a new RetryPolicy with the default settings.
+	 *
+	 * @return The new RetryPolicy
+	 */
+	public static RetryPolicy create() {
+		return new RetryPolicy();
+	}
+
+	/**
+	 * Creates a new RetryPolicy that never retries a request.
+	 *
+	 * @return The new RetryPolicy
+	 */
+	public static RetryPolicy none() {
+		return new RetryPolicy().setMaxAttempts(1);
+	}
+
+	/**
+	 * Sets the maximum amount of attempts of a request, including the first attempt.
+	 *
+	 * <p>Default: <b>3</b>
+	 *
+	 * @param  maxAttempts
+	 *         The maximum amount of attempts, 1 to disable retries
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the provided amount is lower than 1
+	 *
+	 * @return The RetryPolicy instance. Useful for chaining.
+	 */
+	public RetryPolicy setMaxAttempts(int maxAttempts) {
+		Checks.check(maxAttempts > 0, "Max attempts must be at least 1");
+		this.maxAttempts = maxAttempts;
+		return this;
+	}
+
+	/**
+	 * Sets the exponential backoff between attempts.
+	 * <br>The first retry waits the base delay, every following retry waits twice as long, up to the max delay.
+	 *
+	 * <p>Default: <b>100ms base, 10s max</b>
+	 *
+	 * @param  baseDelay
+	 *         The delay before the first retry
+	 * @param  maxDelay
+	 *         The maximum delay between two attempts
+	 * @param  unit
+	 *         The time unit of the delays
+	 *
+	 * @throws IllegalArgumentException
+	 *         If a delay is negative, the max delay is lower than the base delay, or the time unit is null
+	 *
+	 * @return The RetryPolicy instance. Useful for chaining.
+	 */
+	public RetryPolicy setBackoff(long baseDelay, long maxDelay, TimeUnit unit) {
+		Checks.notNull(unit, "TimeUnit");
+		Checks.check(baseDelay >= 0, "Base delay must not be negative");
+		Checks.check(maxDelay >= baseDelay, "Max delay must not be lower than the base delay");
+		this.baseDelay = unit.toMillis(baseDelay);
+		this.maxDelay = unit.toMillis(maxDelay);
+		return this;
+	}
+
+	/**
+	 * Sets the jitter applied to the backoff delay, as a fraction of the delay.
+	 * <br>A jitter of 0.5 waits anywhere between half and the full delay, which spreads the retries of
+	 * concurrent requests instead of sending them all at once.
+	 *
+	 * <p>Default: <b>0.5</b>
+	 *
+	 * @param  jitter
+	 *         The jitter, between 0 (no jitter) and 1 (full jitter)
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the jitter is not between 0 and 1
+	 *
+	 * @return The RetryPolicy instance. Useful for chaining.
+	 */
+	public RetryPolicy setJitter(double jitter) {
+		Checks.check(jitter >= 0 && jitter <= 1, "Jitter must be between 0 and 1");
+		this.jitter = jitter;
+		return this;
+	}
+
+	/**
+	 * Whether the {@code Retry-After} header of a failed response should be respected.
+	 * <br>When enabled, the next attempt waits at least as long as requested by the panel.
+	 *
+	 * <p>Default: <b>true</b>
+	 *
+	 * @param  respect
+	 *         True - respect the {@code Retry-After} header
+	 *
+	 * @return The RetryPolicy instance. Useful for chaining.
+	 */
+	public RetryPolicy setRespectRetryAfter(boolean respect) {
+		this.respectRetryAfter = respect;
+		return this;
+	}
+
+	/**
+	 * Sets whether requests using the provided method can safely be sent more than once.
+	 * <br>Requests using a non-idempotent method are only retried if they never reached the panel.
+	 *
+	 * <p>Default: <b>GET, PUT and DELETE are idempotent</b>
+	 *
+	 * @param  method
+	 *         The method
+	 * @param  idempotent
+	 *         True, if the method is idempotent
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the method is null
+	 *
+	 * @return The RetryPolicy instance. Useful for chaining.
+	 */
+	public RetryPolicy setIdempotent(Method method, boolean idempotent) {
+		Checks.notNull(method, "Method");
+		if (idempotent) this.idempotent.add(method);
+		else this.idempotent.remove(method);
+		return this;
+	}
+
+	/**
+	 * Sets the retry budget.
+	 * <br>Every request adds the ratio to the budget, up to the reserve, and every retry consumes 1 from it.
+	 * Once the budget is exhausted, failed requests are no longer retried until enough requests were sent.
+	 *
+	 * <p>Default: <b>0.2 ratio, 10 reserve</b>
+	 *
+	 * @param  ratio
+	 *         The amount of retries allowed per request
+	 * @param  reserve
+	 *         The maximum amount of retries that can be saved up
+	 *
+	 * @throws IllegalArgumentException
+	 *         If the ratio or reserve is negative
+	 *
+	 * @return The RetryPolicy instance. Useful for chaining.
+	 */
+	public RetryPolicy setRetryBudget(double ratio, int reserve) {
+		Checks.check(ratio >= 0, "Ratio must not be negative");
+		Checks.check(reserve >= 0, "Reserve must not be negative");
+		this.budgetRatio = ratio;
+		this.budgetReserve = reserve;
+		return this;
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	public long getBaseDelay() {
+		return baseDelay;
+	}
+
+	public long getMaxDelay() {
+		return maxDelay;
+	}
+
+	public double getJitter() {
+		return jitter;
+	}
+
+	public boolean isRespectRetryAfter() {
+		return respectRetryAfter;
+	}
+
+	public double getBudgetRatio() {
+		return budgetRatio;
+	}
+
+	public int getBudgetReserve() {
+		return budgetReserve;
+	}
+
+	public boolean isIdempotent(Method method) {
+		return idempotent.contains(method);
+	}
+
+	/**
+	 * Computes the delay before the provided retry.
+	 *
+	 * @param  retry
+	 *         The retry, starting at 1
+	 * @param  retryAfter
+	 *         The delay requested by the panel in milliseconds, or 0
+	 *
+	 * @return The delay in milliseconds
+	 */
+	public long getDelay(int retry, long retryAfter) {
+		long delay = baseDelay << Math.min(retry - 1, 30);
+		if (delay < 0 || delay > maxDelay) delay = maxDelay;
+		delay -= (long) (delay * jitter * ThreadLocalRandom.current().nextDouble());
+
+		if (respectRetryAfter) delay = Math.max(delay, retryAfter);
+		return delay;
+	}
+}
@@ -19,12 +19,19 @@ package be.raft.pelican.requests;
 import static be.raft.pelican.requests.Method.*;
 
 import be.raft.pelican.utils.Checks;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class Route {
 
 	private static final String APPLICATION_PREFIX = "application/";
 	private static final String CLIENT_PREFIX = "client/";
 
+	// parameters that identify a resource with its own rate limit bucket
+	private static final Set<String> MAJOR_PARAMETERS = Set.of("server_id");
+	private static final Pattern PARAMETER_PATTERN = Pattern.compile("\\{(.*?)\\}");
+
 	public static class Users {
 
 		public static final Route LIST_USERS = new Route(GET, APPLICATION_PREFIX + "users?include=servers");
@@ -111,7 +118,7 @@ public class Route {
 		public static final Route LIST_SERVERS = new Route(GET, CLIENT_PREFIX + "?include=subusers,egg");
 		public static final Route GET_SERVER =
 				new Route(GET, CLIENT_PREFIX + "servers/{server_id}?include=subusers,egg");
-		public static final Route GET_WEBSOCKET = new Route(GET, CLIENT_PREFIX + "servers/{server_id}/websocket");
+		public static final Route GET_WEBSOCKET = new Route(GET, CLIENT_PREFIX + "servers/{server_id}/websocket", false);
 		public static final Route RENAME_SERVER =
 				new Route(POST, CLIENT_PREFIX + "servers/{server_id}/settings/rename");
 		public static final Route REINSTALL_SERVER =
@@ -121,7 +128,7 @@ public class Route {
 	public static class Accounts {
 
 		public static final Route GET_ACCOUNT = new Route(GET, CLIENT_PREFIX + "account");
-		public static final Route GET_2FA_CODE = new Route(GET, CLIENT_PREFIX + "account/two-factor");
+		public static final Route GET_2FA_CODE = new Route(GET, CLIENT_PREFIX + "account/two-factor", false);
 		public static final Route ENABLE_2FA = new Route(POST, CLIENT_PREFIX + "account/two-factor");
 		public static final Route DISABLE_2FA = new Route(DELETE, CLIENT_PREFIX + "account/two-factor");
 		public static final Route UPDATE_EMAIL = new Route(PUT, CLIENT_PREFIX + "account/email");
@@ -149,7 +156,7 @@ public class Route {
 		public static final Route GET_BACKUP =
 				new Route(GET, CLIENT_PREFIX + "servers/{server_id}/backups/{identifier}");
 		public static final Route DOWNLOAD_BACKUP =
-				new Route(GET, CLIENT_PREFIX + "servers/{server_id}/backups/{identifier}/download");
+				new Route(GET, CLIENT_PREFIX + "servers/{server_id}/backups/{identifier}/download", false);
 		public static final Route CREATE_BACKUP = new Route(POST, CLIENT_PREFIX + "servers/{server_id}/backups");
 		public static final Route RESTORE_BACKUP =
 				new Route(POST, CLIENT_PREFIX + "servers/{server_id}/backups/{identifier}/restore?truncate=true");
@@ -184,7 +191,7 @@ public class Route {
 		public static final Route GET_CONTENTS =
 				new Route(GET, CLIENT_PREFIX + "servers/{server_id}/files/contents?file={file}");
 		public static final Route DOWNLOAD_FILE =
-				new Route(GET, CLIENT_PREFIX + "servers/{server_id}/files/download?file={file}");
+				new Route(GET, CLIENT_PREFIX + "servers/{server_id}/files/download?file={file}", false);
 		public static final Route RENAME_FILES = new Route(PUT, CLIENT_PREFIX + "servers/{server_id}/files/rename");
 		public static final Route COPY_FILE = new Route(POST, CLIENT_PREFIX + "servers/{server_id}/files/copy");
 		public static final Route WRITE_FILE =
@@ -196,7 +203,7 @@ public class Route {
 		public static final Route DELETE_FILES = new Route(POST, CLIENT_PREFIX + "servers/{server_id}/files/delete");
 		public static final Route CREATE_FOLDER =
 				new Route(POST, CLIENT_PREFIX + "servers/{server_id}/files/create-folder");
-		public static final Route UPLOAD_FILE = new Route(GET, CLIENT_PREFIX + "servers/{server_id}/files/upload");
+		public static final Route UPLOAD_FILE = new Route(GET, CLIENT_PREFIX + "servers/{server_id}/files/upload", false);
 		public static final Route UPLOAD_FILE_BY_URL =
 				new Route(POST, CLIENT_PREFIX + "servers/{server_id}/files/pull?directory={directory}&url={url}");
 	}
@@ -244,10 +251,17 @@ public class Route {
 	private final String route;
 	private final String compilableRoute;
 	private final int paramCount;
+	private final String[] paramNames;
+	private final boolean shareable;
 
 	private Route(Method method, String route) {
+		this(method, route, true);
+	}
+
+	private Route(Method method, String route, boolean shareable) {
 		this.method = method;
 		this.route = route;
+		this.shareable = shareable;
 		this.paramCount = countMatches(route, '{');
 
 		compilableRoute = route.replaceAll("\\{.*?\\}", "%s");
@@ -255,12 +269,30 @@ public class Route {
 		if (paramCount != countMatches(route, '}'))
 			throw new IllegalArgumentException(
 					"An argument does not have both {}'s for route: " + method + "  " + route);
+
+		this.paramNames = new String[paramCount];
+		Matcher matcher = PARAMETER_PATTERN.matcher(route);
+		for (int i = 0; i < paramCount && matcher.find(); i++) paramNames[i] = matcher.group(1);
 	}
 
 	public String getRoute() {
 		return route;
 	}
 
+	public Method getMethod() {
+		return method;
+	}
+
+	/**
+	 * Whether the response of this route can be shared between requests, by coalescing them or caching it.
+	 * <br>Routes that return signed single-use URLs or tokens are never shared.
+	 *
+	 * @return True, if the response can be shared
+	 */
+	public boolean isShareable() {
+		return shareable;
+	}
+
 	@Override
 	public String toString() {
 		return "Route(" + method + ": " + route + ")";
@@ -272,20 +304,29 @@ public class Route {
 					"Error Compiling Route: [" + route + "], incorrect amount of parameters provided. " + "Expected: "
 							+ paramCount + ", Provided: " + params.length);
 
-		if (paramCount == 0) return new CompiledRoute(this, compilableRoute);
+		if (paramCount == 0) return new CompiledRoute(this, compilableRoute, "");
 
 		String compiledRoute = String.format(compilableRoute, (Object[]) params);
 
-		return new CompiledRoute(this, compiledRoute);
+		StringBuilder majorParameters = new StringBuilder();
+		for (int i = 0; i < paramCount; i++) {
+			if (!MAJOR_PARAMETERS.contains(paramNames[i])) continue;
+			if (majorParameters.length() > 0) majorParameters.append(':');
+			majorParameters.append(paramNames[i]).append('=').append(params[i]);
+		}
+
+		return new CompiledRoute(this, compiledRoute, majorParameters.toString());
 	}
 
 	public static class CompiledRoute {
 		private final Route baseRoute;
 		private final String compiledRoute;
+		private final String majorParameters;
 
-		private CompiledRoute(Route baseRoute, String compiledRoute) {
+		private CompiledRoute(Route baseRoute, String compiledRoute, String majorParameters) {
 			this.baseRoute = baseRoute;
 			this.compiledRoute = compiledRoute;
+			this.majorParameters = majorParameters;
 		}
 
 		public String getCompiledRoute() {
@@ -300,6 +341,22 @@ public class Route {
 			return baseRoute.method;
 		}
 
+		/**
+		 * The major parameters of this route, such as the server id.
+		 * <br>Requests on the same base route with different major parameters use separate rate limit buckets.
+		 *
+		 * @return The major parameters, or an empty string if the route has none
+		 */
+		public String getMajorParameters() {
+			return majorParameters;
+		}
+
+		public String getBucket() {
+			return majorParameters.isEmpty()
+					? baseRoute.method + " " + baseRoute.route
+					: baseRoute.method + " " + baseRoute.route + " " + majorParameters;
+		}
+
 		public CompiledRoute withQueryParams(String... params) {
 			Checks.check(params.length >= 2, "Params length must be at least 2");
 			Checks.check(params.length % 2 == 0, "Params length must be a multiple of 2");
@@ -313,7 +370,7 @@ public class Route {
 						.append('=')
 						.append(params[++i]);
 
-			return new CompiledRoute(baseRoute, newRoute.toString());
+			return new CompiledRoute(baseRoute, newRoute.toString(), majorParameters);
 		}
 	}
 
@@ -0,0 +1,100 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package be.raft.pelican.requests;
+
+/**
+ * Report of a shutdown of P4J, describing the work that was dropped.
+ *
+ * @see be.raft.pelican.entities.P4J#shutdown()
+ * @see be.raft.pelican.entities.P4J#shutdownNow()
+ */
+public final class ShutdownResult {
+
+	private final int cancelledRequests;
+	private final int abortedRequests;
+	private final int closedWebSockets;
+	private final long duration;
+
+	public ShutdownResult(int cancelledRequests, int abortedRequests, int closedWebSockets, long duration) {
+		this.cancelledRequests = cancelledRequests;
+		this.abortedRequests = abortedRequests;
+		this.closedWebSockets = closedWebSockets;
+		this.duration = duration;
+	}
+
+	/**
+	 * The amount of queued requests that were cancelled before being sent.
+	 *
+	 * @return The cancelled requests
+	 */
+	public int getCancelledRequests() {
+		return cancelledRequests;
+	}
+
+	/**
+	 * The amount of requests that were in flight and aborted, including requests coalesced with them.
+	 * <br>These requests may have reached the panel.
+	 *
+	 * @return The aborted requests
+	 */
+	public int getAbortedRequests() {
+		return abortedRequests;
+	}
+
+	/**
+	 * The amount of requests that were failed with a {@link java.util.concurrent.CancellationException}.
+	 *
+	 * @return The dropped requests
+	 */
+	public int getDroppedRequests() {
+		return cancelledRequests + abortedRequests;
+	}
+
+	/**
+	 * The amount of websockets that were connected and have been closed.
+	 *
+	 * @return The closed websockets
+	 */
+	public int getClosedWebSockets() {
+		return closedWebSockets;
+	}
+
+	/**
+	 * The time in milliseconds it took from the start of the shutdown until every resource was released.
+	 *
+	 * @return The duration of the shutdown
+	 */
+	public long getDuration() {
+		return duration;
+	}
+
+	/**
+	 * Whether every accepted request was completed before the shutdown.
+	 *
+	 * @return True, if no request was dropped
+	 */
+	public boolean isClean() {
+		return getDroppedRequests() == 0;
+	}
+
+	@Override
+	public String toString() {
+		return "ShutdownResult{cancelled=" + cancelledRequests + ", aborted=" + abortedRequests + ", webSockets="
+				+ closedWebSockets + ", duration=" + duration + "ms}";
+	}
+}
@@ -0,0 +1,297 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests.action.impl;
+
+import be.raft.pelican.Priority;
+import be.raft.pelican.PteroAction;
+import be.raft.pelican.entities.P4J;
+import be.raft.pelican.requests.AdaptiveConcurrency;
+import be.raft.pelican.requests.BatchAction;
+import be.raft.pelican.requests.BatchResult;
+import be.raft.pelican.requests.PteroActionImpl;
+import be.raft.pelican.utils.Checks;
+import be.raft.pelican.utils.ExceptionUtils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+public class BatchActionImpl<T> implements BatchAction<T> {
+
+	private final P4J api;
+	private final List<PteroAction<? extends T>> actions;
+	private int parallelism;
+	private boolean failFast = false;
+	private Consumer<? super BatchResult.Item<T>> listener;
+
+	public BatchActionImpl(P4J api, List<PteroAction<? extends T>> actions) {
+		this.api = api;
+		this.actions = new ArrayList<>(actions);
+		AdaptiveConcurrency adaptive = api.getAdaptiveConcurrency();
+		int perKey = adaptive == null ? api.getMaxConcurrentRequests() : adaptive.getMaxLimit();
+		this.parallelism = perKey * api.getEndpoints().size();
+	}
+
+	@Override
+	public P4J getP4J() {
+		return api;
+	}
+
+	@Override
+	public BatchAction<T> parallelism(int parallelism) {
+		Checks.check(parallelism > 0, "Parallelism must be at least 1");
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	@Override
+	public BatchAction<T> failFast(boolean enable) {
+		this.failFast = enable;
+		return this;
+	}
+
+	@Override
+	public BatchAction<T> onItem(Consumer<? super BatchResult.Item<T>> listener) {
+		this.listener = listener;
+		return this;
+	}
+
+	@Override
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	@Override
+	public boolean isFailFast() {
+		return failFast;
+	}
+
+	@Override
+	public BatchResult<T> execute(boolean shouldQueue) {
+		return PteroActionImpl.await(submit(shouldQueue));
+	}
+
+	@Override
+	public CompletableFuture<BatchResult<T>> submit(boolean shouldQueue) {
+		CompletableFuture<BatchResult<T>> future = new CompletableFuture<>();
+		Execution execution = new Execution(future::complete, shouldQueue);
+		// cancelling the batch stops it and cancels the running actions
+		future.whenComplete((result, error) -> {
+			if (future.isCancelled()) execution.cancel();
+		});
+		execution.start();
+		return future;
+	}
+
+	@Override
+	public void executeAsync(Consumer<? super BatchResult<T>> success, Consumer<? super Throwable> failure) {
+		Consumer<? super BatchResult<T>> onSuccess = success == null ? PteroAction.getDefaultSuccess() : success;
+		Consumer<? super Throwable> onFailure = failure == null ? PteroAction.getDefaultFailure() : failure;
+		submit(true).whenComplete((result, error) -> {
+			if (error != null) {
+				onFailure.accept(ExceptionUtils.unwrap(error));
+				return;
+			}
+			try {
+				onSuccess.accept(result);
+			} catch (Throwable t) {
+				onFailure.accept(t);
+			}
+		});
+	}
+
+	@Override
+	public BatchAction<T> deadline(long timestamp) {
+		actions.forEach(action -> action.deadline(timestamp));
+		return this;
+	}
+
+	@Override
+	public BatchAction<T> priority(Priority priority) {
+		actions.forEach(action -> action.priority(priority));
+		return this;
+	}
+
+	@Override
+	public BatchAction<T> tenant(String tenant) {
+		actions.forEach(action -> action.tenant(tenant));
+		return this;
+	}
+
+	@Override
+	public BatchAction<T> coalesce(boolean enable) {
+		actions.forEach(action -> action.coalesce(enable));
+		return this;
+	}
+
+	@Override
+	public BatchAction<T> useResponseCache(boolean enable) {
+		actions.forEach(action -> action.useResponseCache(enable));
+		return this;
+	}
+
+	private class Execution {
+
+		private final Consumer<? super BatchResult<T>> callback;
+		private final boolean shouldQueue;
+		private final Consumer<? super BatchResult.Item<T>> listener = BatchActionImpl.this.listener;
+		private final int parallelism = BatchActionImpl.this.parallelism;
+		private final boolean failFast = BatchActionImpl.this.failFast;
+		private final List<BatchResult.Item<T>> items;
+		private final List<CompletableFuture<?>> futures;
+		private final long startTime = System.currentTimeMillis();
+
+		private int next = 0;
+		private int running = 0;
+		private boolean stopped = false;
+		private boolean cancelled = false;
+		private boolean failed = false;
+		private boolean launching = false;
+		private boolean finished = false;
+
+		private Execution(Consumer<? super BatchResult<T>> callback, boolean shouldQueue) {
+			this.callback = callback;
+			this.shouldQueue = shouldQueue;
+			this.items = new ArrayList<>(Collections.nCopies(actions.size(), null));
+			this.futures = new ArrayList<>(Collections.nCopies(actions.size(), null));
+		}
+
+		private void start() {
+			launch();
+		}
+
+		private void launch() {
+			synchronized (this) {
+				// actions completing on the launching thread are picked up by its loop instead of recursing
+				if (launching) return;
+				launching = true;
+			}
+
+			while (true) {
+				List<Integer> started = new ArrayList<>();
+				boolean done = false;
+				synchronized (this) {
+					while (!stopped && running < parallelism && next < items.size()) {
+						started.add(next++);
+						running++;
+					}
+
+					if (started.isEmpty()) {
+						launching = false;
+						if (!finished && running == 0 && (stopped || next == items.size())) done = finished = true;
+					}
+				}
+
+				if (started.isEmpty()) {
+					if (done) finish();
+					return;
+				}
+				// execute outside of the lock, callbacks may complete on the calling thread
+				for (int index : started) execute(index);
+			}
+		}
+
+		private void execute(int index) {
+			PteroAction<? extends T> action = actions.get(index);
+			long start = System.currentTimeMillis();
+			try {
+				CompletableFuture<? extends T> future = action.submit(shouldQueue);
+				track(index, future);
+				future.whenComplete((value, error) -> complete(new BatchResult.Item<>(
+						index,
+						action,
+						value,
+						error == null ? null : ExceptionUtils.unwrap(error),
+						System.currentTimeMillis() - start,
+						isAborted(future))));
+			} catch (Throwable t) {
+				complete(new BatchResult.Item<>(index, action, null, t, 0, false));
+			}
+		}
+
+		private void track(int index, CompletableFuture<?> future) {
+			boolean cancel;
+			synchronized (this) {
+				futures.set(index, future);
+				cancel = (cancelled || failed) && items.get(index) == null;
+			}
+			// the batch may have been cancelled or have failed while the action was submitted
+			if (cancel) future.cancel(false);
+		}
+
+		/**
+		 * Whether the action was cancelled because another action failed in fail-fast mode.
+		 */
+		private synchronized boolean isAborted(CompletableFuture<?> future) {
+			return failed && future.isCancelled();
+		}
+
+		private void cancel() {
+			List<CompletableFuture<?>> running;
+			synchronized (this) {
+				stopped = cancelled = true;
+				running = getRunning();
+			}
+			running.forEach(future -> future.cancel(false));
+		}
+
+		private List<CompletableFuture<?>> getRunning() {
+			List<CompletableFuture<?>> running = new ArrayList<>();
+			for (int i = 0; i < futures.size(); i++) {
+				if (futures.get(i) != null && items.get(i) == null) running.add(futures.get(i));
+			}
+			return running;
+		}
+
+		private void complete(BatchResult.Item<T> item) {
+			List<CompletableFuture<?>> aborted = Collections.emptyList();
+			synchronized (this) {
+				items.set(item.getIndex(), item);
+				running--;
+				if (failFast && item.getError() != null && !item.isSkipped() && !stopped) {
+					stopped = failed = true;
+					aborted = getRunning();
+				}
+			}
+			// the running actions are cancelled and reported as skipped
+			aborted.forEach(future -> future.cancel(false));
+
+			if (listener != null) {
+				try {
+					listener.accept(item);
+				} catch (Throwable t) {
+					PteroAction.getDefaultFailure().accept(t);
+				}
+			}
+			launch();
+		}
+
+		private void finish() {
+			synchronized (this) {
+				for (int i = 0; i < items.size(); i++) {
+					if (items.get(i) != null) continue;
+					CancellationException error =
+							new CancellationException("Batch was stopped, action was not started");
+					items.set(i, new BatchResult.Item<>(i, actions.get(i), null, error, 0, true));
+				}
+			}
+			callback.accept(new BatchResult<>(new ArrayList<>(items), startTime, System.currentTimeMillis()));
+		}
+	}
+}
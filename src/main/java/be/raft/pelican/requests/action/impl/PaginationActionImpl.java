@@ -26,6 +26,7 @@ import be.raft.pelican.utils.Procedure;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
@@ -236,14 +237,32 @@ public abstract class PaginationActionImpl<T> extends PteroActionImpl<List<T>> i
 		}
 	}
 
+	@Override
+	public Flow.Publisher<T> publisher(int readAhead) {
+		Checks.check(readAhead > 0, "Read-ahead must be at least 1");
+		return new PaginationPublisher<>(this::retrievePage, getCurrentPage(), readAhead);
+	}
+
+	/**
+	 * Retrieves a single page of entities, without updating the cache or the current page of this action.
+	 *
+	 * @param  page
+	 *         The page to retrieve
+	 *
+	 * @return Future of the page
+	 */
+	protected abstract CompletableFuture<PaginationPublisher.Page<T>> retrievePage(int page);
+
 	@Override
 	protected Route.CompiledRoute finalizeRoute() {
+		return getPageRoute(getCurrentPage());
+	}
+
+	protected Route.CompiledRoute getPageRoute(int page) {
 		Route.CompiledRoute route = super.finalizeRoute();
 
 		String limit = Integer.toUnsignedString(getLimit());
-		String page = Integer.toUnsignedString(getCurrentPage());
-
-		return route.withQueryParams("per_page", limit, "page", page);
+		return route.withQueryParams("per_page", limit, "page", Integer.toUnsignedString(page));
 	}
 
 	protected int getIteratorIndex() {
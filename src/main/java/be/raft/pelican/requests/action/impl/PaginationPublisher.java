@@ -0,0 +1,212 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests.action.impl;
+
+import be.raft.pelican.utils.ExceptionUtils;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Publishes the entities of a paginated endpoint, pages are only retrieved when the demand of the subscriber
+ * isn't covered by the entities that were already retrieved.
+ * <br>At most {@code readAhead} pages are retrieved at the same time, which bounds the memory used by a subscription.
+ *
+ * @param <T>
+ *        The type of entity to paginate
+ */
+public class PaginationPublisher<T> implements Flow.Publisher<T> {
+
+	private final IntFunction<CompletableFuture<Page<T>>> retriever;
+	private final int firstPage;
+	private final int readAhead;
+
+	public PaginationPublisher(IntFunction<CompletableFuture<Page<T>>> retriever, int firstPage, int readAhead) {
+		this.retriever = retriever;
+		this.firstPage = firstPage;
+		this.readAhead = readAhead;
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super T> subscriber) {
+		PaginationSubscription subscription = new PaginationSubscription(subscriber);
+		subscriber.onSubscribe(subscription);
+	}
+
+	/**
+	 * A retrieved page, along with the total amount of pages reported by the endpoint.
+	 */
+	public static class Page<T> {
+
+		private final List<T> entities;
+		private final int totalPages;
+
+		public Page(List<T> entities, int totalPages) {
+			this.entities = entities;
+			this.totalPages = totalPages;
+		}
+
+		public List<T> getEntities() {
+			return entities;
+		}
+
+		public int getTotalPages() {
+			return totalPages;
+		}
+	}
+
+	private class PaginationSubscription implements Flow.Subscription {
+
+		private final Flow.Subscriber<? super T> subscriber;
+		private final AtomicLong demand = new AtomicLong();
+		private final AtomicInteger wip = new AtomicInteger();
+		// only accessed by the thread draining the subscription
+		private final Queue<T> buffer = new ArrayDeque<>();
+		private final Queue<CompletableFuture<Page<T>>> pending = new ArrayDeque<>();
+		private int nextPage = firstPage;
+		private int lastPage = -1;
+		private boolean exhausted = false;
+		private boolean done = false;
+
+		private volatile boolean cancelled = false;
+		private volatile Throwable invalidRequest;
+
+		private PaginationSubscription(Flow.Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) invalidRequest = new IllegalArgumentException("Requested amount must be positive, got " + n);
+			else demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+			drain();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			drain();
+		}
+
+		private void drain() {
+			// only a single thread signals the subscriber, the others leave their work to it
+			if (wip.getAndIncrement() != 0) return;
+
+			do {
+				drainLoop();
+			} while (wip.decrementAndGet() != 0);
+		}
+
+		private void drainLoop() {
+			while (!done) {
+				if (cancelled) {
+					terminate();
+					return;
+				}
+
+				Throwable error = invalidRequest;
+				if (error != null) {
+					terminate();
+					subscriber.onError(error);
+					return;
+				}
+
+				retrieve();
+				if (!buffer.isEmpty()) {
+					if (demand.get() == 0) return;
+					emit(buffer.poll());
+					continue;
+				}
+
+				CompletableFuture<Page<T>> head = pending.peek();
+				if (head == null) {
+					if (exhausted) {
+						done = true;
+						subscriber.onComplete();
+					}
+					return;
+				}
+
+				if (!head.isDone()) return;
+				pending.poll();
+				if (!receive(head)) return;
+			}
+		}
+
+		private void retrieve() {
+			// the amount of pages is unknown until the first one is retrieved
+			int limit = lastPage < 0 ? 1 : readAhead;
+			List<CompletableFuture<Page<T>>> started = new ArrayList<>();
+			while (!exhausted && pending.size() < limit && demand.get() > buffer.size()) {
+				CompletableFuture<Page<T>> future = retriever.apply(nextPage++);
+				pending.add(future);
+				started.add(future);
+				if (lastPage >= 0 && nextPage > lastPage) exhausted = true;
+			}
+
+			// completed pages re-enter the drain loop once the current pass is done
+			started.forEach(future -> future.whenComplete((page, error) -> drain()));
+		}
+
+		private boolean receive(CompletableFuture<Page<T>> future) {
+			Page<T> page;
+			try {
+				page = future.join();
+			} catch (Throwable t) {
+				terminate();
+				subscriber.onError(ExceptionUtils.unwrap(t));
+				return false;
+			}
+
+			if (page.getEntities().isEmpty()) {
+				// pages retrieved ahead past the end are of no use
+				exhausted = true;
+				pending.forEach(pendingPage -> pendingPage.cancel(false));
+				pending.clear();
+				return true;
+			}
+
+			lastPage = page.getTotalPages();
+			if (nextPage > lastPage) exhausted = true;
+			buffer.addAll(page.getEntities());
+			return true;
+		}
+
+		private void emit(T entity) {
+			demand.getAndUpdate(current -> current == Long.MAX_VALUE ? current : current - 1);
+			try {
+				subscriber.onNext(entity);
+			} catch (Throwable t) {
+				PaginationActionImpl.PAGINATION_LOG.error("Subscriber failed to handle an entity, cancelling", t);
+				cancelled = true;
+			}
+		}
+
+		private void terminate() {
+			done = true;
+			buffer.clear();
+			pending.forEach(future -> future.cancel(false));
+			pending.clear();
+		}
+	}
+}
@@ -17,12 +17,14 @@
 package be.raft.pelican.requests.action.impl;
 
 import be.raft.pelican.entities.P4J;
+import be.raft.pelican.requests.PteroActionImpl;
 import be.raft.pelican.requests.Request;
 import be.raft.pelican.requests.Response;
 import be.raft.pelican.requests.Route;
 import be.raft.pelican.utils.PaginatedEntity;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import org.json.JSONObject;
 
@@ -47,15 +49,9 @@ public class PaginationResponseImpl<T> extends PaginationActionImpl<T> {
 		PaginatedEntity paginatedEntity = PaginatedEntity.create(object);
 		totalPages = paginatedEntity.getTotalPages();
 
-		List<T> entities = new LinkedList<>();
-		for (Object o : object.getJSONArray("data")) {
-			T entity = handler.apply(new JSONObject(o.toString()));
-			entities.add(entity);
-
-			if (useCache) cached.add(entity);
-
-			last = entity;
-		}
+		List<T> entities = parseEntities(object);
+		if (useCache) cached.addAll(entities);
+		if (!entities.isEmpty()) last = entities.get(entities.size() - 1);
 
 		PAGINATION_LOG.trace("Successfully retrieved {} entities", entities.size());
 
@@ -65,4 +61,26 @@ public class PaginationResponseImpl<T> extends PaginationActionImpl<T> {
 		currentPage = getCurrentPage() + 1;
 		request.onSuccess(entities);
 	}
+
+	@Override
+	protected CompletableFuture<PaginationPublisher.Page<T>> retrievePage(int page) {
+		PteroActionImpl<PaginationPublisher.Page<T>> action =
+				new PteroActionImpl<>(getP4J(), getPageRoute(page), (response, request) -> {
+					JSONObject object = response.getObject();
+					int totalPages = PaginatedEntity.create(object).getTotalPages();
+					return new PaginationPublisher.Page<>(parseEntities(object), totalPages);
+				});
+		action.deadline(getDeadline())
+				.priority(getPriority())
+				.tenant(getTenant())
+				.coalesce(isCoalescing())
+				.useResponseCache(isUsingResponseCache());
+		return action.submit();
+	}
+
+	private List<T> parseEntities(JSONObject object) {
+		List<T> entities = new ArrayList<>();
+		for (Object o : object.getJSONArray("data")) entities.add(handler.apply((JSONObject) o));
+		return entities;
+	}
 }
@@ -0,0 +1,59 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package be.raft.pelican.requests.action.operator;
+
+import be.raft.pelican.PteroAction;
+import be.raft.pelican.utils.ExceptionUtils;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Completes with the results of every action in order, or fails as soon as one of them fails.
+ */
+public class AllOfPteroAction<T> extends CombinedPteroAction<T, List<T>> {
+
+	public AllOfPteroAction(List<? extends PteroAction<? extends T>> actions) {
+		super(actions);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected CompletableFuture<List<T>> combine(List<CompletableFuture<? extends T>> futures) {
+		CompletableFuture<List<T>> result = new CompletableFuture<>();
+		Object[] values = new Object[futures.size()];
+		AtomicInteger remaining = new AtomicInteger(futures.size());
+
+		for (int i = 0; i < futures.size(); i++) {
+			int index = i;
+			futures.get(i).whenComplete((value, error) -> {
+				if (error != null) {
+					result.completeExceptionally(ExceptionUtils.unwrap(error));
+					return;
+				}
+
+				values[index] = value;
+				if (remaining.decrementAndGet() == 0)
+					result.complete(Collections.unmodifiableList((List<T>) Arrays.asList(values)));
+			});
+		}
+		return result;
+	}
+}
@@ -0,0 +1,54 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package be.raft.pelican.requests.action.operator;
+
+import be.raft.pelican.PteroAction;
+import be.raft.pelican.utils.ExceptionUtils;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Completes with the result of the first action that succeeds, and only fails once every action failed.
+ * <br>When racing, the first action that completes decides the outcome, even if it failed.
+ */
+public class AnyOfPteroAction<T> extends CombinedPteroAction<T, T> {
+
+	private final boolean race;
+
+	public AnyOfPteroAction(List<? extends PteroAction<? extends T>> actions, boolean race) {
+		super(actions);
+		this.race = race;
+	}
+
+	@Override
+	protected CompletableFuture<T> combine(List<CompletableFuture<? extends T>> futures) {
+		CompletableFuture<T> result = new CompletableFuture<>();
+		AtomicInteger remaining = new AtomicInteger(futures.size());
+
+		for (CompletableFuture<? extends T> future : futures) {
+			future.whenComplete((value, error) -> {
+				if (error == null) result.complete(value);
+				// the last failure is reported when every action failed
+				else if (race || remaining.decrementAndGet() == 0)
+					result.completeExceptionally(ExceptionUtils.unwrap(error));
+			});
+		}
+		return result;
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package be.raft.pelican.requests.action.operator;
+
+import be.raft.pelican.Priority;
+import be.raft.pelican.PteroAction;
+import be.raft.pelican.entities.P4J;
+import be.raft.pelican.requests.PteroActionImpl;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Base of the operators combining the results of several actions, which are executed concurrently.
+ * <br>Once the outcome is known, the actions that are still running are cancelled.
+ *
+ * @param <I>
+ *        The result type of the combined actions
+ * @param <O>
+ *        The output type
+ */
+public abstract class CombinedPteroAction<I, O> implements PteroAction<O> {
+
+	protected final List<PteroAction<? extends I>> actions;
+
+	public CombinedPteroAction(List<? extends PteroAction<? extends I>> actions) {
+		this.actions = new ArrayList<>(actions);
+	}
+
+	/**
+	 * Combines the futures of the actions into the result of this action.
+	 *
+	 * @param  futures
+	 *         The futures of the actions, in the order of {@link #actions}
+	 *
+	 * @return Future of the output
+	 */
+	protected abstract CompletableFuture<O> combine(List<CompletableFuture<? extends I>> futures);
+
+	@Override
+	public CompletableFuture<O> submit(boolean shouldQueue) {
+		List<CompletableFuture<? extends I>> futures = new ArrayList<>(actions.size());
+		try {
+			for (PteroAction<? extends I> action : actions) futures.add(action.submit(shouldQueue));
+		} catch (RuntimeException e) {
+			// the actions that were already submitted would otherwise run without anyone waiting for them
+			futures.forEach(future -> future.cancel(false));
+			throw e;
+		}
+
+		CompletableFuture<O> result = combine(futures);
+		result.whenComplete((value, error) -> futures.forEach(future -> future.cancel(false)));
+		return result;
+	}
+
+	@Override
+	public void executeAsync(Consumer<? super O> success, Consumer<? super Throwable> failure) {
+		PteroActionOperator.handle(submit(true), success, failure);
+	}
+
+	@Override
+	public O execute(boolean shouldQueue) {
+		return PteroActionImpl.await(submit(shouldQueue));
+	}
+
+	@Override
+	public PteroAction<O> deadline(long timestamp) {
+		actions.forEach(action -> action.deadline(timestamp));
+		return this;
+	}
+
+	@Override
+	public PteroAction<O> priority(Priority priority) {
+		actions.forEach(action -> action.priority(priority));
+		return this;
+	}
+
+	@Override
+	public PteroAction<O> tenant(String tenant) {
+		actions.forEach(action -> action.tenant(tenant));
+		return this;
+	}
+
+	@Override
+	public PteroAction<O> coalesce(boolean enable) {
+		actions.forEach(action -> action.coalesce(enable));
+		return this;
+	}
+
+	@Override
+	public PteroAction<O> useResponseCache(boolean enable) {
+		actions.forEach(action -> action.useResponseCache(enable));
+		return this;
+	}
+
+	@Override
+	public P4J getP4J() {
+		return actions.get(0).getP4J();
+	}
+}
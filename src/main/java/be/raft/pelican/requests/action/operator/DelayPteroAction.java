@@ -17,9 +17,10 @@
 package be.raft.pelican.requests.action.operator;
 
 import be.raft.pelican.PteroAction;
+import be.raft.pelican.utils.ExceptionUtils;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Consumer;
 
 // big thanks to JDA for this tremendous code
 
@@ -37,18 +38,13 @@ public class DelayPteroAction<T> extends PteroActionOperator<T, T> {
 	}
 
 	@Override
-	public void executeAsync(Consumer<? super T> success, Consumer<? super Throwable> failure) {
-		action.executeAsync((result) -> scheduler.schedule(() -> doSuccess(success, result), delay, unit), failure);
-	}
-
-	@Override
-	public T execute(boolean shouldQueue) {
-		T result = action.execute(shouldQueue);
-		try {
-			unit.sleep(delay);
-			return result;
-		} catch (InterruptedException e) {
-			throw new RuntimeException(e);
-		}
+	public CompletableFuture<T> submit(boolean shouldQueue) {
+		OperatorFuture<T> result = new OperatorFuture<>();
+		result.track(action.submit(shouldQueue)).whenComplete((value, error) -> {
+			if (result.isDone()) return;
+			if (error == null) result.track(scheduler.schedule(() -> result.complete(value), delay, unit));
+			else result.completeExceptionally(ExceptionUtils.unwrap(error));
+		});
+		return result;
 	}
 }
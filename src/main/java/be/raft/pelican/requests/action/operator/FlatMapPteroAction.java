@@ -17,7 +17,8 @@
 package be.raft.pelican.requests.action.operator;
 
 import be.raft.pelican.PteroAction;
-import java.util.function.Consumer;
+import be.raft.pelican.utils.ExceptionUtils;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -38,19 +39,28 @@ public class FlatMapPteroAction<I, O> extends PteroActionOperator<I, O> {
 	}
 
 	@Override
-	public void executeAsync(Consumer<? super O> success, Consumer<? super Throwable> failure) {
-		action.executeAsync(
-				(result) -> {
-					if (condition != null && !condition.test(result)) return;
-					PteroAction<O> then = function.apply(result);
-					if (then == null) doFailure(failure, new IllegalStateException("FlatMap operand is null"));
-					else then.executeAsync(success, failure);
-				},
-				failure);
-	}
+	public CompletableFuture<O> submit(boolean shouldQueue) {
+		OperatorFuture<O> result = new OperatorFuture<>();
+		result.track(action.submit(shouldQueue)).whenComplete((value, error) -> {
+			if (result.isDone()) return;
+			if (error != null) {
+				result.completeExceptionally(ExceptionUtils.unwrap(error));
+				return;
+			}
 
-	@Override
-	public O execute(boolean shouldQueue) {
-		return function.apply(action.execute(shouldQueue)).execute(shouldQueue);
+			try {
+				if (condition != null && !condition.test(value)) {
+					result.complete(null);
+					return;
+				}
+
+				PteroAction<O> then = applyContext(function.apply(value));
+				if (then == null) result.completeExceptionally(new IllegalStateException("FlatMap operand is null"));
+				else result.forward(then.submit(shouldQueue));
+			} catch (Throwable t) {
+				result.completeExceptionally(t);
+			}
+		});
+		return result;
 	}
 }
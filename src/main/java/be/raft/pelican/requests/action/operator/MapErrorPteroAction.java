@@ -17,9 +17,8 @@
 package be.raft.pelican.requests.action.operator;
 
 import be.raft.pelican.PteroAction;
-import be.raft.pelican.exceptions.PteroException;
 import be.raft.pelican.utils.ExceptionUtils;
-import java.util.function.Consumer;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -38,34 +37,22 @@ public class MapErrorPteroAction<T> extends PteroActionOperator<T, T> {
 	}
 
 	@Override
-	public void executeAsync(Consumer<? super T> success, Consumer<? super Throwable> failure) {
-		action.executeAsync(success, (error) -> {
-			try {
-				if (check.test(error)) doSuccess(success, map.apply(error));
-				else doFailure(failure, error);
-			} catch (Throwable e) {
-				doFailure(failure, ExceptionUtils.appendCause(e, error));
+	public CompletableFuture<T> submit(boolean shouldQueue) {
+		OperatorFuture<T> result = new OperatorFuture<>();
+		result.track(action.submit(shouldQueue)).whenComplete((value, failure) -> {
+			if (failure == null) {
+				result.complete(value);
+				return;
 			}
-		});
-	}
 
-	@Override
-	public T execute(boolean shouldQueue) {
-		try {
-			return action.execute(shouldQueue);
-		} catch (Throwable error) {
+			Throwable error = ExceptionUtils.unwrap(failure);
 			try {
-				if (check.test(error)) return map.apply(error);
+				if (check.test(error)) result.complete(map.apply(error));
+				else result.completeExceptionally(error);
 			} catch (Throwable e) {
-				fail(ExceptionUtils.appendCause(e, error));
+				result.completeExceptionally(ExceptionUtils.appendCause(e, error));
 			}
-			fail(error);
-		}
-		throw new AssertionError("Unreachable");
-	}
-
-	private void fail(Throwable error) {
-		if (error instanceof PteroException) throw (PteroException) error;
-		else throw new RuntimeException(error);
+		});
+		return result;
 	}
 }
@@ -17,7 +17,8 @@
 package be.raft.pelican.requests.action.operator;
 
 import be.raft.pelican.PteroAction;
-import java.util.function.Consumer;
+import be.raft.pelican.utils.ExceptionUtils;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 // big thanks to JDA for this tremendous code
@@ -32,13 +33,20 @@ public class MapPteroAction<I, O> extends PteroActionOperator<I, O> {
 	}
 
 	@Override
-	public void executeAsync(Consumer<? super O> success, Consumer<? super Throwable> failure) {
-		action.executeAsync(
-				(result) -> doSuccess(success, function.apply(result)), (error) -> doFailure(failure, error));
-	}
-
-	@Override
-	public O execute(boolean shouldQueue) {
-		return function.apply(action.execute(shouldQueue));
+	public CompletableFuture<O> submit(boolean shouldQueue) {
+		OperatorFuture<O> result = new OperatorFuture<>();
+		result.track(action.submit(shouldQueue)).whenComplete((value, error) -> {
+			if (error != null) {
+				result.completeExceptionally(ExceptionUtils.unwrap(error));
+				return;
+			}
+
+			try {
+				result.complete(function.apply(value));
+			} catch (Throwable t) {
+				result.completeExceptionally(t);
+			}
+		});
+		return result;
 	}
 }
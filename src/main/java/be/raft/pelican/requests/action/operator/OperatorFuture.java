@@ -0,0 +1,56 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests.action.operator;
+
+import be.raft.pelican.utils.ExceptionUtils;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * Future of an operator, cancelling it also cancels the future the operator is currently waiting for.
+ */
+class OperatorFuture<T> extends CompletableFuture<T> {
+
+	private volatile Future<?> current;
+
+	/**
+	 * Tracks the future this operator is waiting for, which is cancelled right away if this future already was.
+	 */
+	<F extends Future<?>> F track(F future) {
+		current = future;
+		if (isCancelled()) future.cancel(false);
+		return future;
+	}
+
+	/**
+	 * Tracks the future and completes this future with its outcome.
+	 */
+	void forward(CompletableFuture<? extends T> future) {
+		track(future).whenComplete((value, error) -> {
+			if (error == null) complete(value);
+			else completeExceptionally(ExceptionUtils.unwrap(error));
+		});
+	}
+
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		boolean cancelled = super.cancel(mayInterruptIfRunning);
+		Future<?> future = current;
+		if (future != null) future.cancel(mayInterruptIfRunning);
+		return cancelled;
+	}
+}
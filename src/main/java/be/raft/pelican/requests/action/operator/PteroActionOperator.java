@@ -16,8 +16,12 @@
 
 package be.raft.pelican.requests.action.operator;
 
+import be.raft.pelican.Priority;
 import be.raft.pelican.PteroAction;
 import be.raft.pelican.entities.P4J;
+import be.raft.pelican.requests.PteroActionImpl;
+import be.raft.pelican.utils.ExceptionUtils;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 // big thanks to JDA for this tremendous code
@@ -41,6 +45,30 @@ public abstract class PteroActionOperator<I, O> implements PteroAction<O> {
 		else callback.accept(throwable);
 	}
 
+	protected static <E> void handle(
+			CompletableFuture<E> future, Consumer<? super E> success, Consumer<? super Throwable> failure) {
+		future.whenComplete((value, error) -> {
+			if (error == null) doSuccess(success, value);
+			else doFailure(failure, ExceptionUtils.unwrap(error));
+		});
+	}
+
+	protected <E> PteroAction<E> applyContext(PteroAction<E> then) {
+		// the actions that follow must respect the deadline of the whole chain
+		if (then != null && deadline > 0) then.deadline(deadline);
+		return then;
+	}
+
+	@Override
+	public void executeAsync(Consumer<? super O> success, Consumer<? super Throwable> failure) {
+		handle(submit(true), success, failure);
+	}
+
+	@Override
+	public O execute(boolean shouldQueue) {
+		return PteroActionImpl.await(submit(shouldQueue));
+	}
+
 	@Override
 	public PteroAction<O> deadline(long timestamp) {
 		this.deadline = timestamp;
@@ -48,6 +76,30 @@ public abstract class PteroActionOperator<I, O> implements PteroAction<O> {
 		return this;
 	}
 
+	@Override
+	public PteroAction<O> priority(Priority priority) {
+		action.priority(priority);
+		return this;
+	}
+
+	@Override
+	public PteroAction<O> tenant(String tenant) {
+		action.tenant(tenant);
+		return this;
+	}
+
+	@Override
+	public PteroAction<O> coalesce(boolean enable) {
+		action.coalesce(enable);
+		return this;
+	}
+
+	@Override
+	public PteroAction<O> useResponseCache(boolean enable) {
+		action.useResponseCache(enable);
+		return this;
+	}
+
 	@Override
 	public P4J getP4J() {
 		return action.getP4J();
@@ -0,0 +1,78 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package be.raft.pelican.requests.action.operator;
+
+import be.raft.pelican.PteroAction;
+import be.raft.pelican.utils.ExceptionUtils;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Completes with a fallback value when the action doesn't complete in time, the action is then cancelled.
+ */
+public class TimeoutFallbackPteroAction<T> extends PteroActionOperator<T, T> {
+
+	private final long timeout;
+	private final TimeUnit unit;
+	private final Supplier<? extends T> fallback;
+
+	public TimeoutFallbackPteroAction(
+			PteroAction<T> action, long timeout, TimeUnit unit, Supplier<? extends T> fallback) {
+		super(action);
+		this.timeout = timeout;
+		this.unit = unit;
+		this.fallback = fallback;
+	}
+
+	@Override
+	public CompletableFuture<T> submit(boolean shouldQueue) {
+		CompletableFuture<T> future = action.submit(shouldQueue);
+		CompletableFuture<T> result = new CompletableFuture<>();
+
+		// the timer only triggers the fallback, a slow supplier must not delay the rate limiter
+		ScheduledFuture<?> timer = getP4J().getRateLimitPool()
+				.schedule(
+						() -> {
+							if (!result.isDone()) getP4J().getSupplierPool().execute(() -> complete(result));
+						},
+						timeout,
+						unit);
+
+		future.whenComplete((value, error) -> {
+			timer.cancel(false);
+			if (error == null) result.complete(value);
+			else result.completeExceptionally(ExceptionUtils.unwrap(error));
+		});
+		result.whenComplete((value, error) -> {
+			timer.cancel(false);
+			future.cancel(false);
+		});
+		return result;
+	}
+
+	private void complete(CompletableFuture<T> result) {
+		if (result.isDone()) return;
+		try {
+			result.complete(fallback.get());
+		} catch (Throwable t) {
+			result.completeExceptionally(t);
+		}
+	}
+}
@@ -16,6 +16,8 @@
 
 package be.raft.pelican.utils;
 
+import java.util.concurrent.CompletionException;
+
 public final class ExceptionUtils {
 
 	public static <T extends Throwable> T appendCause(T throwable, Throwable cause) {
@@ -24,4 +26,10 @@ public final class ExceptionUtils {
 		t.initCause(cause);
 		return throwable;
 	}
+
+	public static Throwable unwrap(Throwable throwable) {
+		// dependent stages of a future wrap the original failure
+		if (throwable instanceof CompletionException && throwable.getCause() != null) return throwable.getCause();
+		return throwable;
+	}
 }
@@ -0,0 +1,72 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import org.slf4j.Logger;
+
+/**
+ * Creates executors backed by virtual threads when the runtime supports them.
+ * <br>P4J targets Java 17, so the Java 21 API is looked up reflectively.
+ */
+public final class VirtualThreads {
+
+	private static final Logger LOGGER = P4JLogger.getLogger(VirtualThreads.class);
+
+	private static final boolean SUPPORTED = newFactory("P4J-Probe-") != null;
+
+	public static boolean isSupported() {
+		return SUPPORTED;
+	}
+
+	/**
+	 * Creates an executor that starts a new named virtual thread for every task.
+	 *
+	 * @param  name
+	 *         The name of the pool, used like {@link NamedThreadFactory}
+	 *
+	 * @return The executor, or null if virtual threads are not supported by the runtime
+	 */
+	public static ExecutorService newExecutor(String name) {
+		if (!SUPPORTED) return null;
+
+		ThreadFactory factory = newFactory(String.format("P4J-%s-Virtual-", name));
+		if (factory == null) return null;
+		try {
+			Method method = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+			return (ExecutorService) method.invoke(null, factory);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			LOGGER.debug("Could not create virtual thread executor", e);
+			return null;
+		}
+	}
+
+	private static ThreadFactory newFactory(String prefix) {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+			return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// older runtimes, or Java 19/20 without --enable-preview
+			return null;
+		}
+	}
+}
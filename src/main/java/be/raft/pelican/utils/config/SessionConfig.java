@@ -17,23 +17,95 @@
 package be.raft.pelican.utils.config;
 
 import be.raft.pelican.P4JInfo;
+import be.raft.pelican.requests.AdaptiveConcurrency;
+import be.raft.pelican.requests.CircuitBreaker;
+import be.raft.pelican.requests.HedgingPolicy;
+import be.raft.pelican.requests.JsonCodec;
+import be.raft.pelican.requests.MetricsListener;
+import be.raft.pelican.requests.QueuePolicy;
+import be.raft.pelican.requests.RequestInterceptor;
+import be.raft.pelican.requests.ResponseCache;
+import be.raft.pelican.requests.RetryPolicy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 
 public final class SessionConfig {
 
 	public static final String DEFAULT_USER_AGENT = "Pterodactyl4J (" + P4JInfo.VERSION + ")";
+	public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 5;
 
 	private final OkHttpClient httpClient;
 	private final OkHttpClient webSocketClient;
+	private final int maxConcurrentRequests;
+	private final int apiKeys;
+	private final boolean ownsHttpClient;
+	private final boolean ownsWebSocketClient;
 	private String userAgent;
+	private boolean rateLimitPacing;
+	private ResponseCache responseCache;
+	private CircuitBreaker circuitBreaker;
+	private JsonCodec jsonCodec = JsonCodec.getDefault();
+	private MetricsListener metricsListener;
+	private List<RequestInterceptor> interceptors = Collections.emptyList();
+	private RetryPolicy retryPolicy = RetryPolicy.create();
+	private AdaptiveConcurrency adaptiveConcurrency;
+	private HedgingPolicy hedgingPolicy;
+	private QueuePolicy queuePolicy;
+	private Map<String, Integer> tenantWeights = Collections.emptyMap();
 
 	public SessionConfig(OkHttpClient httpClient, OkHttpClient webSocketClient) {
-		if (httpClient == null) httpClient = new OkHttpClient();
+		this(httpClient, webSocketClient, DEFAULT_MAX_CONCURRENT_REQUESTS);
+	}
+
+	public SessionConfig(OkHttpClient httpClient, OkHttpClient webSocketClient, int maxConcurrentRequests) {
+		this(httpClient, webSocketClient, maxConcurrentRequests, 1);
+	}
+
+	public SessionConfig(
+			OkHttpClient httpClient, OkHttpClient webSocketClient, int maxConcurrentRequests, int apiKeys) {
+		if (maxConcurrentRequests < 1) maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
 
+		this.ownsHttpClient = httpClient == null;
+		this.ownsWebSocketClient = webSocketClient == null;
+
+		if (httpClient == null) httpClient = new OkHttpClient.Builder().dispatcher(new Dispatcher()).build();
 		if (webSocketClient == null) webSocketClient = new OkHttpClient();
 
 		this.httpClient = httpClient;
 		this.webSocketClient = webSocketClient;
+		this.maxConcurrentRequests = maxConcurrentRequests;
+		this.apiKeys = Math.max(apiKeys, 1);
+		allowConcurrentRequests(maxConcurrentRequests);
+	}
+
+	private void allowConcurrentRequests(int perKey) {
+		if (!ownsHttpClient) return;
+
+		// every request goes to the same panel, so the per host limit must not be lower than our own limit
+		// the limit applies to every API key separately
+		int totalRequests = perKey * apiKeys;
+		Dispatcher dispatcher = httpClient.dispatcher();
+		dispatcher.setMaxRequestsPerHost(Math.max(dispatcher.getMaxRequestsPerHost(), totalRequests));
+		dispatcher.setMaxRequests(Math.max(dispatcher.getMaxRequests(), totalRequests));
+	}
+
+	/**
+	 * Releases the threads and connections of the clients created by P4J,
+	 * clients provided to the constructor are left untouched.
+	 */
+	public void shutdown() {
+		if (ownsHttpClient) close(httpClient);
+		if (ownsWebSocketClient) close(webSocketClient);
+	}
+
+	private static void close(OkHttpClient client) {
+		client.dispatcher().executorService().shutdown();
+		client.connectionPool().evictAll();
 	}
 
 	public OkHttpClient getHttpClient() {
@@ -44,6 +116,102 @@ public final class SessionConfig {
 		return webSocketClient;
 	}
 
+	public int getMaxConcurrentRequests() {
+		return maxConcurrentRequests;
+	}
+
+	public boolean isRateLimitPacing() {
+		return rateLimitPacing;
+	}
+
+	public void setRateLimitPacing(boolean rateLimitPacing) {
+		this.rateLimitPacing = rateLimitPacing;
+	}
+
+	public ResponseCache getResponseCache() {
+		return responseCache;
+	}
+
+	public void setResponseCache(ResponseCache responseCache) {
+		this.responseCache = responseCache;
+	}
+
+	public AdaptiveConcurrency getAdaptiveConcurrency() {
+		return adaptiveConcurrency;
+	}
+
+	public void setAdaptiveConcurrency(AdaptiveConcurrency adaptiveConcurrency) {
+		this.adaptiveConcurrency = adaptiveConcurrency;
+		// the limit can grow past the max concurrent requests
+		if (adaptiveConcurrency != null) allowConcurrentRequests(adaptiveConcurrency.getMaxLimit());
+	}
+
+	public QueuePolicy getQueuePolicy() {
+		return queuePolicy;
+	}
+
+	public void setQueuePolicy(QueuePolicy queuePolicy) {
+		this.queuePolicy = queuePolicy;
+	}
+
+	public Map<String, Integer> getTenantWeights() {
+		return tenantWeights;
+	}
+
+	public void setTenantWeights(Map<String, Integer> tenantWeights) {
+		this.tenantWeights = Collections.unmodifiableMap(new HashMap<>(tenantWeights));
+	}
+
+	public HedgingPolicy getHedgingPolicy() {
+		return hedgingPolicy;
+	}
+
+	public void setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+		this.hedgingPolicy = hedgingPolicy;
+	}
+
+	public CircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+	public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+		this.circuitBreaker = circuitBreaker;
+	}
+
+	public JsonCodec getJsonCodec() {
+		return jsonCodec;
+	}
+
+	public void setJsonCodec(JsonCodec jsonCodec) {
+		if (jsonCodec == null) jsonCodec = JsonCodec.getDefault();
+		this.jsonCodec = jsonCodec;
+	}
+
+	public MetricsListener getMetricsListener() {
+		return metricsListener;
+	}
+
+	public void setMetricsListener(MetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+	}
+
+	public List<RequestInterceptor> getInterceptors() {
+		return interceptors;
+	}
+
+	public void setInterceptors(List<RequestInterceptor> interceptors) {
+		this.interceptors = Collections.unmodifiableList(new ArrayList<>(interceptors));
+	}
+
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	public void setRetryPolicy(RetryPolicy retryPolicy) {
+		if (retryPolicy == null) retryPolicy = RetryPolicy.create();
+		this.retryPolicy = retryPolicy;
+	}
+
 	public String getUserAgent() {
 		return userAgent;
 	}
@@ -17,10 +17,15 @@
 package be.raft.pelican.utils.config;
 
 import be.raft.pelican.utils.NamedThreadFactory;
+import be.raft.pelican.utils.P4JLogger;
+import be.raft.pelican.utils.VirtualThreads;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 public final class ThreadingConfig {
 
@@ -28,6 +33,26 @@ public final class ThreadingConfig {
 	private ExecutorService actionPool;
 	private ExecutorService supplierPool;
 	private ScheduledExecutorService rateLimitPool;
+	private final boolean virtualThreads;
+	// pools created by P4J, which are closed on shutdown
+	private final List<ExecutorService> ownedPools = new ArrayList<>();
+
+	public ThreadingConfig() {
+		this(false);
+	}
+
+	public ThreadingConfig(boolean virtualThreads) {
+		if (virtualThreads && !VirtualThreads.isSupported()) {
+			P4JLogger.getLogger(ThreadingConfig.class)
+					.warn("Virtual threads are not supported by this runtime, using the default thread pools");
+			virtualThreads = false;
+		}
+		this.virtualThreads = virtualThreads;
+	}
+
+	public boolean isVirtualThreads() {
+		return virtualThreads;
+	}
 
 	public ExecutorService getCallbackPool() {
 		return callbackPool;
@@ -46,23 +71,44 @@ public final class ThreadingConfig {
 	}
 
 	public void setCallbackPool(ExecutorService callbackPool) {
+		if (callbackPool == null && virtualThreads) callbackPool = own(VirtualThreads.newExecutor("Callback"));
 		if (callbackPool == null) callbackPool = ForkJoinPool.commonPool();
 		this.callbackPool = callbackPool;
 	}
 
 	public void setActionPool(ExecutorService actionPool) {
-		if (actionPool == null) actionPool = Executors.newSingleThreadExecutor(new NamedThreadFactory("Action"));
+		if (actionPool == null && virtualThreads) actionPool = own(VirtualThreads.newExecutor("Action"));
+		if (actionPool == null) actionPool = own(Executors.newSingleThreadExecutor(new NamedThreadFactory("Action")));
 		this.actionPool = actionPool;
 	}
 
 	public void setSupplierPool(ExecutorService supplierPool) {
-		if (supplierPool == null) supplierPool = Executors.newFixedThreadPool(3, new NamedThreadFactory("Supplier"));
+		if (supplierPool == null && virtualThreads) supplierPool = own(VirtualThreads.newExecutor("Supplier"));
+		if (supplierPool == null)
+			supplierPool = own(Executors.newFixedThreadPool(3, new NamedThreadFactory("Supplier")));
 		this.supplierPool = supplierPool;
 	}
 
 	public void setRateLimitPool(ScheduledExecutorService rateLimitPool) {
-		if (rateLimitPool == null)
-			rateLimitPool = Executors.newScheduledThreadPool(5, new NamedThreadFactory("RateLimit"));
+		if (rateLimitPool == null) {
+			ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(5, new NamedThreadFactory("RateLimit"));
+			// delayed rate limit and retry tasks are pointless once P4J has been shut down
+			pool.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+			rateLimitPool = own(pool);
+		}
 		this.rateLimitPool = rateLimitPool;
 	}
+
+	/**
+	 * Shuts down the pools created by P4J, pools provided with the setters are left untouched.
+	 * <br>Tasks that were already submitted are still executed.
+	 */
+	public void shutdown() {
+		ownedPools.forEach(ExecutorService::shutdown);
+	}
+
+	private <T extends ExecutorService> T own(T pool) {
+		ownedPools.add(pool);
+		return pool;
+	}
 }
@@ -0,0 +1,89 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import be.raft.pelican.PteroAction;
+import be.raft.pelican.PteroBuilder;
+import be.raft.pelican.application.entities.Node;
+import be.raft.pelican.application.entities.PteroApplication;
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTimeoutTest {
+
+	private HttpServer server;
+	private CircuitBreaker breaker;
+	private PteroApplication application;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", exchange -> {
+			try {
+				Thread.sleep(2000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			exchange.close();
+		});
+		server.start();
+
+		breaker = CircuitBreaker.create().setFailureThreshold(2).setOpenDuration(1, TimeUnit.MINUTES);
+		OkHttpClient client =
+				new OkHttpClient.Builder().callTimeout(100, TimeUnit.MILLISECONDS).build();
+		application = PteroBuilder.create("http://127.0.0.1:" + server.getAddress().getPort(), "token")
+				.setHttpClient(client)
+				.setCircuitBreaker(breaker)
+				.setRetryPolicy(RetryPolicy.none())
+				.buildApplication();
+	}
+
+	@AfterEach
+	void tearDown() {
+		application.retrieveNodeById("1").getP4J().shutdownNow();
+		server.stop(0);
+	}
+
+	@Test
+	void callTimeoutsOpenCircuit() {
+		for (int i = 0; i < 2; i++) assertThrows(Exception.class, () -> application.retrieveNodeById("1").execute());
+
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+	}
+
+	@Test
+	void cancelledRequestsDoNotOpenCircuit() throws Exception {
+		for (int i = 0; i < 2; i++) {
+			PteroAction<Node> action = application.retrieveNodeById("1");
+			CompletableFuture<Node> future = action.submit();
+			Thread.sleep(20);
+			future.cancel(true);
+		}
+		Thread.sleep(200);
+
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+	}
+}
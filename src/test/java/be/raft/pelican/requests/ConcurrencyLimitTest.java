@@ -0,0 +1,61 @@
+/*
+ *    Copyright 2021-2022 Matt Malec, and the Pterodactyl4J contributors
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package be.raft.pelican.requests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ConcurrencyLimitTest {
+
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+	private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+	@Test
+	void slowRouteDoesNotDecreaseLimit() {
+		ConcurrencyLimit limit = new ConcurrencyLimit(AdaptiveConcurrency.create().setLimits(2, 50), 10);
+
+		for (int i = 0; i < 1000; i++) {
+			limit.update(Route.Nodes.GET_NODE, FAST, limit.get(), false);
+			limit.update(Route.Servers.LIST_SERVERS, SLOW, limit.get(), false);
+		}
+
+		assertTrue(limit.get() > 10, "limit should grow with mixed fast and slow routes, was " + limit.get());
+	}
+
+	@Test
+	void slowResponseOfFastRouteDecreasesLimit() {
+		ConcurrencyLimit limit = new ConcurrencyLimit(AdaptiveConcurrency.create().setLimits(2, 50), 10);
+
+		limit.update(Route.Nodes.GET_NODE, FAST, 1, false);
+		limit.update(Route.Servers.LIST_SERVERS, SLOW, 1, false);
+		assertEquals(10, limit.get());
+
+		assertTrue(limit.update(Route.Nodes.GET_NODE, SLOW, 1, false));
+		assertEquals(9, limit.get());
+	}
+
+	@Test
+	void overloadDecreasesLimit() {
+		ConcurrencyLimit limit = new ConcurrencyLimit(AdaptiveConcurrency.create().setLimits(2, 50), 10);
+
+		assertTrue(limit.update(Route.Servers.LIST_SERVERS, FAST, 1, true));
+		assertEquals(9, limit.get());
+	}
+}